@@ -0,0 +1,99 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.reverseOrder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+final class RymBenchmarkFixtures
+{
+    private static final long SEED = 0x5eedL;
+
+    static List<Path> createJars(
+        Path dir,
+        int jars,
+        int entries,
+        int entrySize) throws IOException
+    {
+        Random random = new Random(SEED);
+        List<Path> paths = new ArrayList<>(jars);
+        for (int index = 0; index < jars; index++)
+        {
+            Path path = dir.resolve(String.format("fixture%d-1.0.jar", index));
+            createJar(path, String.format("org/example/fixture%d", index), entries, entrySize, random);
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    static void deleteDirectories(
+        Path dir) throws IOException
+    {
+        if (dir != null && Files.exists(dir))
+        {
+            try (Stream<Path> paths = Files.walk(dir))
+            {
+                paths.sorted(reverseOrder())
+                     .map(Path::toFile)
+                     .forEach(File::delete);
+            }
+        }
+    }
+
+    private static void createJar(
+        Path path,
+        String packagePath,
+        int entries,
+        int entrySize,
+        Random random) throws IOException
+    {
+        byte[] contents = new byte[entrySize];
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(path)))
+        {
+            for (int index = 0; index < entries; index++)
+            {
+                for (int offset = 0; offset < contents.length; offset++)
+                {
+                    contents[offset] = (byte) ('a' + random.nextInt(16));
+                }
+
+                jar.putNextEntry(new JarEntry(String.format("%s/Type%d.class", packagePath, index)));
+                jar.write(contents);
+                jar.closeEntry();
+            }
+
+            String service = String.format("%s.Service", packagePath.replace('/', '.'));
+            jar.putNextEntry(new JarEntry("META-INF/services/org.example.Service"));
+            jar.write(String.format("%s%n", service).getBytes(UTF_8));
+            jar.closeEntry();
+        }
+    }
+
+    private RymBenchmarkFixtures()
+    {
+    }
+}
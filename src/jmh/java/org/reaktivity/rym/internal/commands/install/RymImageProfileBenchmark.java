@@ -0,0 +1,135 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.reaktivity.rym.internal.RymCli;
+
+import com.github.rvesse.airline.Cli;
+
+/**
+ * Measures launcher startup for each image profile, installing the fixture modules and timing the generated ry script.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RymImageProfileBenchmark
+{
+    private static final String LAUNCHER_MAIN = "fixture.module0/fixture.module0.Provider";
+
+    @Param({ "startup", "size", "debug" })
+    public String profile;
+
+    @Param({ "16" })
+    public int artifacts;
+
+    private Path benchmarkDir;
+    private Path launcher;
+    private long imageBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ImageSize
+    {
+        public long imageBytes;
+
+        private boolean reported;
+
+        @TearDown(Level.Iteration)
+        public void report(
+            IterationParams iteration,
+            RymImageProfileBenchmark benchmark)
+        {
+            // events are summed over the measurement iterations, so the size is counted in the first one only
+            boolean measured = iteration.getType() == IterationType.MEASUREMENT;
+            imageBytes = measured && !reported ? benchmark.imageBytes : 0L;
+            reported |= measured;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void installImage() throws IOException
+    {
+        benchmarkDir = Files.createTempDirectory("rym-image-profile-benchmark");
+        Path configDir = benchmarkDir.resolve("config");
+        Path outputDir = benchmarkDir.resolve("rym");
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(benchmarkDir.resolve("fixture"), artifacts, 16, 1024);
+        fixture.generate();
+        fixture.writeConfig(configDir);
+
+        Path configFile = configDir.resolve("rym.json");
+        String config = Files.readString(configFile);
+        Files.writeString(configFile,
+            config.replaceFirst("\\{", String.format("{\n  \"launcher\": { \"main\": \"%s\" },", LAUNCHER_MAIN)));
+
+        String[] args =
+        {
+            "install",
+            "--config-directory", configDir.toString(),
+            "--settings-directory", benchmarkDir.resolve("settings").toString(),
+            "--output-directory", outputDir.toString(),
+            "--launcher-directory", benchmarkDir.toString(),
+            "--image-profile", profile,
+            "--exclude-local-repository",
+            "--silent"
+        };
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        parser.parse(args).run();
+
+        launcher = benchmarkDir.resolve("ry");
+        try (Stream<Path> paths = Files.walk(outputDir.resolve("image")))
+        {
+            imageBytes = paths.map(Path::toFile).mapToLong(f -> f.isFile() ? f.length() : 0L).sum();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteImage() throws IOException
+    {
+        RymRepositoryFixture.delete(benchmarkDir);
+    }
+
+    @Benchmark
+    public int startup(
+        ImageSize size) throws Exception
+    {
+        return new ProcessBuilder(launcher.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start()
+                .waitFor();
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reaktivity.rym.internal.RymCli;
+
+import com.github.rvesse.airline.Cli;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RymInstallBenchmark
+{
+    @Param({ "cold", "warm" })
+    public String cache;
+
+    @Param({ "32" })
+    public int artifacts;
+
+    @Param({ "64" })
+    public int entries;
+
+    @Param({ "4096" })
+    public int entrySize;
+
+    private Path benchmarkDir;
+    private Path configDir;
+    private Path outputDir;
+    private Path metricsFile;
+    private Map<String, long[]> stageMillis;
+    private int installs;
+
+    @Setup(Level.Trial)
+    public void createRepository() throws IOException
+    {
+        benchmarkDir = Files.createTempDirectory("rym-install-benchmark");
+        configDir = benchmarkDir.resolve("config");
+        outputDir = benchmarkDir.resolve("rym");
+        metricsFile = benchmarkDir.resolve("metrics.json");
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(benchmarkDir.resolve("fixture"), artifacts, entries, entrySize);
+        fixture.generate();
+        fixture.writeConfig(configDir);
+
+        if ("warm".equals(cache))
+        {
+            install();
+        }
+
+        stageMillis = new LinkedHashMap<>();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRepository() throws IOException
+    {
+        reportStages();
+        RymRepositoryFixture.delete(benchmarkDir);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetIfCold() throws IOException
+    {
+        if ("cold".equals(cache))
+        {
+            RymRepositoryFixture.delete(outputDir);
+            Files.deleteIfExists(configDir.resolve("rym-lock.json"));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void recordStages() throws Exception
+    {
+        try (Jsonb builder = JsonbBuilder.create();
+             InputStream in = Files.newInputStream(metricsFile))
+        {
+            RymInstallMetrics metrics = builder.fromJson(in, RymInstallMetrics.class);
+            for (RymStageMetrics stage : metrics.stages)
+            {
+                long[] millis = stageMillis.computeIfAbsent(stage.name, n -> new long[2]);
+                millis[0] += stage.wallMillis;
+                millis[1] += stage.cpuMillis;
+            }
+            installs++;
+        }
+    }
+
+    @Benchmark
+    public void install()
+    {
+        String[] args =
+        {
+            "install",
+            "--config-directory", configDir.toString(),
+            "--settings-directory", benchmarkDir.resolve("settings").toString(),
+            "--output-directory", outputDir.toString(),
+            "--launcher-directory", benchmarkDir.toString(),
+            "--metrics-file", metricsFile.toString(),
+            "--exclude-local-repository",
+            "--silent"
+        };
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        parser.parse(args).run();
+    }
+
+    private void reportStages()
+    {
+        if (installs != 0)
+        {
+            System.out.format("%n%s install stages, mean of %d installs%n", cache, installs);
+            System.out.format("%-10s %10s %10s%n", "stage", "wall ms", "cpu ms");
+            stageMillis.forEach((n, m) -> System.out.format("%-10s %10d %10d%n", n, m[0] / installs, m[1] / installs));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reaktivity.rym.internal.commands.install.cache.RymModule;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RymJarBenchmark
+{
+    @Param({ "16" })
+    public int jars;
+
+    @Param({ "256" })
+    public int entries;
+
+    @Param({ "4096" })
+    public int entrySize;
+
+    private Path fixturesDir;
+    private List<Path> fixtures;
+    private RymInstall install;
+    private RymModule delegate;
+    private byte[] moduleInfo;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws IOException
+    {
+        fixturesDir = Files.createTempDirectory("rym-jar-benchmark");
+        fixtures = RymBenchmarkFixtures.createJars(fixturesDir, jars, entries, entrySize);
+
+        install = new RymInstall();
+        delegate = new RymModule();
+        delegate.paths.addAll(fixtures);
+        moduleInfo = new RymModuleInfoWriter().writeOpenDelegating("fixture0", RymModule.DELEGATE_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixtures() throws IOException
+    {
+        RymBenchmarkFixtures.deleteDirectories(fixturesDir);
+    }
+
+    @Benchmark
+    public Path extendJar() throws IOException
+    {
+        Path target = fixturesDir.resolve("extended.jar");
+        install.extendJar(fixtures.get(0), target, "module-info.class", moduleInfo);
+        return target;
+    }
+
+    @Benchmark
+    public Path assembleDelegate() throws IOException
+    {
+        Path target = fixturesDir.resolve("delegate.jar");
+        install.assembleDelegate(delegate, target);
+        return target;
+    }
+}
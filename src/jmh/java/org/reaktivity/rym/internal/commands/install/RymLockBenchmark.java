@@ -0,0 +1,94 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RymLockBenchmark
+{
+    @Param({ "200" })
+    public int artifacts;
+
+    private Jsonb builder;
+    private RymConfiguration config;
+    private String lock;
+
+    @Setup(Level.Trial)
+    public void createLock()
+    {
+        List<RymLockedArtifact> locked = new ArrayList<>(artifacts);
+        RymDependency previous = null;
+        for (int index = 0; index < artifacts; index++)
+        {
+            RymDependency id = RymDependency.of("org.example", String.format("fixture%d", index), "1.0");
+            List<RymDependency> depends = previous != null ? singletonList(previous) : emptyList();
+            String path = String.format("org/example/fixture%d/1.0/fixture%d-1.0.jar", index, index);
+            String sha256 = String.format("%064x", index);
+            locked.add(RymLockedArtifact.of(id, depends, "central", path, sha256, "sha1"));
+            previous = id;
+        }
+
+        config = new RymConfiguration();
+        config.dependencies = singletonList(previous);
+        config.artifacts = locked;
+
+        builder = JsonbBuilder.newBuilder()
+                .withConfig(new JsonbConfig().withFormatting(true))
+                .build();
+        lock = builder.toJson(config);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeBuilder() throws Exception
+    {
+        builder.close();
+    }
+
+    @Benchmark
+    public String writeLock()
+    {
+        return builder.toJson(config);
+    }
+
+    @Benchmark
+    public RymConfiguration readLock()
+    {
+        return builder.fromJson(lock, RymConfiguration.class);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reaktivity.rym.internal.commands.install.cache.RymArtifact;
+import org.reaktivity.rym.internal.commands.install.cache.RymArtifactId;
+import org.reaktivity.rym.internal.commands.install.cache.RymModule;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RymModulesBenchmark
+{
+    @Param({ "64" })
+    public int jars;
+
+    @Param({ "16" })
+    public int entries;
+
+    private Path fixturesDir;
+    private List<RymArtifact> artifacts;
+    private RymInstall install;
+    private Collection<RymModule> modules;
+    private RymModule delegate;
+
+    @Setup(Level.Trial)
+    public void createFixtures() throws IOException
+    {
+        fixturesDir = Files.createTempDirectory("rym-modules-benchmark");
+        List<Path> fixtures = RymBenchmarkFixtures.createJars(fixturesDir, jars, entries, 64);
+
+        artifacts = new ArrayList<>(fixtures.size());
+        RymArtifactId previousId = null;
+        for (int index = 0; index < fixtures.size(); index++)
+        {
+            RymArtifactId id = new RymArtifactId("org.example", String.format("fixture%d", index), "1.0");
+            Set<RymArtifactId> depends = previousId != null ? singleton(previousId) : emptySet();
+            artifacts.add(new RymArtifact(id, fixtures.get(index), depends));
+            previousId = id;
+        }
+
+        install = new RymInstall();
+        install.loadModuleIndex(fixturesDir.resolve("modules.json"));
+        install.discoverModules(artifacts);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFixtures() throws IOException
+    {
+        RymBenchmarkFixtures.deleteDirectories(fixturesDir);
+    }
+
+    @Setup(Level.Invocation)
+    public void createModules()
+    {
+        modules = new LinkedHashSet<>();
+        for (RymArtifact artifact : artifacts)
+        {
+            modules.add(new RymModule(artifact.id.artifact, true, artifact));
+        }
+        delegate = new RymModule();
+    }
+
+    @Benchmark
+    public Collection<RymModule> discoverModulesCold() throws IOException
+    {
+        install.loadModuleIndex(fixturesDir.resolve("modules.json"));
+        return install.discoverModules(artifacts);
+    }
+
+    @Benchmark
+    public Collection<RymModule> discoverModulesWarm() throws IOException
+    {
+        return install.discoverModules(artifacts);
+    }
+
+    @Benchmark
+    public RymModule delegateAutomatic()
+    {
+        install.delegateAutomatic(modules, delegate);
+        return delegate;
+    }
+}
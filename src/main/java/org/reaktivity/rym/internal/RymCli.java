@@ -18,6 +18,7 @@ package org.reaktivity.rym.internal;
 import org.reaktivity.rym.internal.commands.clean.RymClean;
 import org.reaktivity.rym.internal.commands.encrypt.RymEncrypt;
 import org.reaktivity.rym.internal.commands.install.RymInstall;
+import org.reaktivity.rym.internal.commands.prefetch.RymPrefetch;
 import org.reaktivity.rym.internal.commands.wrap.RymWrap;
 
 import com.github.rvesse.airline.annotations.Cli;
@@ -30,6 +31,7 @@ import com.github.rvesse.airline.help.Help;
     {
         Help.class,
         RymWrap.class,
+        RymPrefetch.class,
         RymInstall.class,
         RymClean.class,
         RymEncrypt.class
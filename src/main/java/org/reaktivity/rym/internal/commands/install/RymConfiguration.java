@@ -23,11 +23,15 @@ public final class RymConfiguration
     public List<RymDependency> dependencies;
     public List<RymDependency> imports;
     public List<RymRepository> repositories;
+    public List<RymLockedArtifact> artifacts;
+    public RymImage image;
+    public RymLauncher launcher;
+    public RymRefresh refresh;
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(dependencies, imports, repositories);
+        return Objects.hash(dependencies, imports, repositories, artifacts, image, launcher, refresh);
     }
 
     @Override
@@ -46,6 +50,10 @@ public final class RymConfiguration
         RymConfiguration that = (RymConfiguration) obj;
         return Objects.deepEquals(this.dependencies, that.dependencies) &&
                 Objects.deepEquals(this.imports, that.imports) &&
-                Objects.deepEquals(this.repositories, that.repositories);
+                Objects.deepEquals(this.repositories, that.repositories) &&
+                Objects.deepEquals(this.artifacts, that.artifacts) &&
+                Objects.equals(this.image, that.image) &&
+                Objects.equals(this.launcher, that.launcher) &&
+                Objects.equals(this.refresh, that.refresh);
     }
 }
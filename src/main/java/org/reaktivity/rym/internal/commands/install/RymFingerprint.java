@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class RymFingerprint
+{
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest digest;
+
+    public RymFingerprint()
+    {
+        this.digest = newDigest("SHA-256");
+    }
+
+    public RymFingerprint update(
+        Object value)
+    {
+        byte[] bytes = String.valueOf(value).getBytes(UTF_8);
+        digest.update(bytes);
+        digest.update((byte) 0);
+        return this;
+    }
+
+    public RymFingerprint update(
+        Path file) throws IOException
+    {
+        update(file.toString());
+        if (Files.isRegularFile(file))
+        {
+            updateContents(digest, file);
+        }
+        digest.update((byte) 0);
+        return this;
+    }
+
+    public String digest()
+    {
+        return toHex(digest.digest());
+    }
+
+    public static String sha256(
+        Path file) throws IOException
+    {
+        return digest(file, "SHA-256");
+    }
+
+    public static String digest(
+        Path file,
+        String algorithm) throws IOException
+    {
+        MessageDigest digest = newDigest(algorithm);
+        updateContents(digest, file);
+        return toHex(digest.digest());
+    }
+
+    public static String toHex(
+        byte[] bytes)
+    {
+        char[] chars = new char[bytes.length << 1];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            chars[i << 1] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[(i << 1) + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    private static void updateContents(
+        MessageDigest digest,
+        Path file) throws IOException
+    {
+        byte[] buffer = new byte[8192];
+        try (InputStream input = Files.newInputStream(file))
+        {
+            for (int length = input.read(buffer); length != -1; length = input.read(buffer))
+            {
+                digest.update(buffer, 0, length);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest(
+        String algorithm)
+    {
+        try
+        {
+            return MessageDigest.getInstance(algorithm);
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
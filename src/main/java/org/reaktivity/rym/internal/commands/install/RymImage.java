@@ -0,0 +1,47 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.util.Objects;
+
+public final class RymImage
+{
+    public String profile;
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(profile);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymImage))
+        {
+            return false;
+        }
+
+        RymImage that = (RymImage) obj;
+        return Objects.equals(this.profile, that.profile);
+    }
+}
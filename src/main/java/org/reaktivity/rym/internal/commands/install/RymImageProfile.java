@@ -0,0 +1,57 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.stream.Collectors.joining;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum RymImageProfile
+{
+    STARTUP(0, true, true),
+    SIZE(2, true, false),
+    DEBUG(0, false, false);
+
+    public final int compress;
+    public final boolean stripDebug;
+    public final boolean archiveClasses;
+
+    RymImageProfile(
+        int compress,
+        boolean stripDebug,
+        boolean archiveClasses)
+    {
+        this.compress = compress;
+        this.stripDebug = stripDebug;
+        this.archiveClasses = archiveClasses;
+    }
+
+    public static RymImageProfile of(
+        String name)
+    {
+        for (RymImageProfile profile : values())
+        {
+            if (profile.name().equalsIgnoreCase(name))
+            {
+                return profile;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("unknown image profile %s, expected one of %s", name,
+            Arrays.stream(values()).map(p -> p.name().toLowerCase(Locale.ROOT)).collect(joining(", "))));
+    }
+}
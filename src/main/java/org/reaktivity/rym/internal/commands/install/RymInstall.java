@@ -17,18 +17,11 @@ package org.reaktivity.rym.internal.commands.install;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.createDirectories;
-import static java.nio.file.Files.getLastModifiedTime;
 import static java.nio.file.Files.newInputStream;
 import static java.nio.file.Files.newOutputStream;
-import static java.util.Collections.emptyList;
-import static java.util.Collections.list;
-import static java.util.Collections.singletonMap;
+import static java.util.Collections.singletonList;
 import static java.util.Comparator.reverseOrder;
-import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
-import static org.reaktivity.rym.internal.settings.RymSecrets.decryptSecret;
-import static org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher.SYSTEM_PROPERTY_SEC_LOCATION;
 
 import java.io.File;
 import java.io.IOException;
@@ -37,16 +30,16 @@ import java.io.OutputStream;
 import java.lang.module.ModuleDescriptor;
 import java.lang.module.ModuleFinder;
 import java.lang.module.ModuleReference;
-import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
@@ -56,10 +49,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
-import java.util.jar.JarOutputStream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.spi.ToolProvider;
@@ -72,262 +71,567 @@ import javax.json.bind.JsonbConfig;
 
 import org.apache.ivy.util.DefaultMessageLogger;
 import org.apache.ivy.util.Message;
-import org.apache.ivy.util.MessageLogger;
-import org.apache.ivy.util.url.CredentialsStore;
-import org.reaktivity.rym.internal.RymCommand;
 import org.reaktivity.rym.internal.commands.install.cache.RymArtifact;
 import org.reaktivity.rym.internal.commands.install.cache.RymArtifactId;
-import org.reaktivity.rym.internal.commands.install.cache.RymCache;
 import org.reaktivity.rym.internal.commands.install.cache.RymModule;
-import org.reaktivity.rym.internal.settings.RymCredentials;
-import org.reaktivity.rym.internal.settings.RymSecrets;
-import org.reaktivity.rym.internal.settings.RymSecurity;
-import org.reaktivity.rym.internal.settings.RymSettings;
-import org.sonatype.plexus.components.cipher.PlexusCipherException;
+import org.reaktivity.rym.internal.commands.install.event.RymDownloadEvent;
+import org.reaktivity.rym.internal.commands.install.event.RymJarEvent;
+import org.reaktivity.rym.internal.commands.install.event.RymStageEvent;
+import org.reaktivity.rym.internal.commands.install.event.RymToolEvent;
+import org.reaktivity.rym.internal.types.RymDurationConverterProvider;
+import org.reaktivity.rym.internal.types.RymPathConverterProvider;
 
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.Option;
 
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
 @Command(
     name = "install",
     description = "Install dependencies")
-public final class RymInstall extends RymCommand
+public final class RymInstall extends RymResolveCommand
 {
     private static final String MODULE_INFO_JAVA_FILENAME = "module-info.java";
     private static final String MODULE_INFO_CLASS_FILENAME = "module-info.class";
-
-    private static final Map<String, String> DEFAULT_REALMS = initDefaultRealms();
+    private static final String IMAGE_DIGEST_FILENAME = "rym-image.sha256";
+    private static final String LAUNCHER_MAIN = "org.reaktivity.ry/org.reaktivity.ry.internal.RyMain";
+    private static final List<String> LAUNCHER_OPTIONS = Arrays.asList("--add-opens", "java.base/sun.nio.ch=org.agrona.core");
+    private static final List<String> LAUNCHER_MAIN_OPTIONS = Arrays.asList("-m", "--module", "-jar");
+    private static final String LAUNCHER_ARCHIVE_PATH = "lib/ry.jsa";
+    private static final String IDENTIFIER_REGEX = "[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*";
+    private static final String QUALIFIED_NAME_REGEX = String.format("%s(?:\\.%s)*", IDENTIFIER_REGEX, IDENTIFIER_REGEX);
+    private static final Pattern LAUNCHER_MAIN_PATTERN =
+            Pattern.compile(String.format("%s(?:/%s)?", QUALIFIED_NAME_REGEX, QUALIFIED_NAME_REGEX));
+    private static final Pattern LAUNCHER_PROPERTY_PATTERN = Pattern.compile("[^\\s=]+");
+    private static final Pattern LAUNCHER_UNQUOTED_PATTERN = Pattern.compile("[\\w\\-.,:=/+@%]+");
+    private static final String LAUNCHER_ARCHIVE_DIGEST_PATH = "lib/ry.jsa.sha256";
+    private static final Duration TRAINING_EXIT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final List<Class<? extends Event>> RECORDED_EVENTS = Arrays.asList(
+            RymStageEvent.class,
+            RymDownloadEvent.class,
+            RymToolEvent.class,
+            RymJarEvent.class);
 
     @Option(name = { "--debug" })
     public Boolean debug = false;
 
-    @Option(name = { "--exclude-local-repository" })
-    public boolean excludeLocalRepo;
-
     @Option(name = { "--ignore-missing-dependencies" })
     public boolean ignoreMissingDependencies;
 
+    @Option(name = { "--image-profile" },
+            description = "runtime image profile: startup, size or debug")
+    public String imageProfile;
+
+    @Option(name = { "--metrics-file" },
+            description = "write install stage metrics as json",
+            typeConverterProvider = RymPathConverterProvider.class)
+    public Path metricsFile;
+
+    @Option(name = { "--record" },
+            description = "record a flight recording of the install into the output directory")
+    public boolean record;
+
+    @Option(name = { "--app-cds" },
+            description = "archive launcher classes from a training run of the image with the launcher training " +
+                          "arguments, skipped when none are configured")
+    public boolean appCds;
+
+    @Option(name = { "--app-cds-training-timeout" },
+            description = "stop a launcher training run still going after this long, such as 30s or 2m, " +
+                          "archiving the classes it loaded as it exits",
+            typeConverterProvider = RymDurationConverterProvider.class)
+    public Duration trainingTimeout = Duration.ofSeconds(60);
+
+    private RymInstallManifest manifest;
+    private RymImageProfile profile;
+    private List<String> launcherOptions;
+    private String launcherMain;
+    private List<String> launcherTraining;
+    private RymModuleIndex moduleIndex;
+    private boolean moduleIndexChanged;
+    private String inputs;
+
     @Override
     public void invoke()
     {
         int level = silent ? Message.MSG_WARN : Message.MSG_INFO;
-        MessageLogger logger = new DefaultMessageLogger(level);
+        logger = new DefaultMessageLogger(level);
         Message.setDefaultLogger(logger);
 
+        metrics = new RymInstallMetrics();
+        metrics.stages = new ArrayList<>();
+
+        Recording recording = record ? startRecording() : null;
+
         try
         {
-            RymConfiguration config;
-
             Path rymFile = configDir.resolve("rym.json");
-
-            logger.info(String.format("reading %s", rymFile));
-            config = readOrDefaultConfig(rymFile);
-
             Path lockFile = lockDir.resolve("rym-lock.json");
-            logger.info(String.format("reading %s", lockFile));
-            config = overrideConfigIfLocked(config, rymFile, lockFile);
-
-            logger.info("resolving dependencies");
-            readSettings(settingsDir);
-            createDirectories(cacheDir);
-            List<RymRepository> repositories = new ArrayList<>(config.repositories);
-            if (!excludeLocalRepo)
-            {
-                String localRepo = String.format("file://%s/.m2/repository", System.getProperty("user.home"));
-                repositories.add(0, new RymRepository(localRepo));
-            }
-            RymCache cache = new RymCache(repositories, cacheDir);
-            Collection<RymArtifact> artifacts = cache.resolve(config.imports, config.dependencies);
-            Map<RymDependency, RymDependency> resolvables = artifacts.stream()
-                    .map(a -> a.id)
-                    .collect(
-                        toMap(
-                            id -> RymDependency.of(id.group, id.artifact, null),
-                            id -> RymDependency.of(id.group, id.artifact, id.version)));
-
-            RymConfiguration resolved = new RymConfiguration();
-            resolved.repositories = config.repositories;
-            resolved.imports = null;
-            resolved.dependencies = config.dependencies.stream()
-                    .map(d -> ofNullable(resolvables.get(d)).orElse(d))
-                    .collect(toList());
 
-            if (!resolved.equals(config))
+            Collection<RymArtifact> artifacts = resolveArtifacts(rymFile, lockFile);
+            installModules(artifacts, lockFile);
+        }
+        catch (Exception ex)
+        {
+            logger.error(String.format("Error: %s", ex.getMessage()));
+            throw new RuntimeException(ex);
+        }
+        finally
+        {
+            if (recording != null)
             {
-                logger.info(String.format("writing %s", lockFile));
-                writeLockFile(resolved, lockFile);
+                stopRecording(recording);
             }
 
-            createDirectories(modulesDir);
-            createDirectories(generatedDir);
+            reportMetrics();
 
-            RymModule delegate = new RymModule();
-            Collection<RymModule> modules = discoverModules(artifacts);
-            migrateUnnamed(modules, delegate);
-            generateSystemOnlyAutomatic(modules);
-            delegateAutomatic(modules, delegate);
-            copyNonDelegating(modules);
-
-            if (!delegate.paths.isEmpty())
+            if (!silent)
             {
-                generateDelegate(delegate);
-                generateDelegating(modules);
+                logger.sumupProblems();
             }
+        }
+    }
 
-            deleteDirectories(imageDir);
-            linkModules(modules);
-            logger.info("linked modules");
+    private Recording startRecording()
+    {
+        Recording recording = new Recording();
+        recording.setName("rym-install");
+        RECORDED_EVENTS.forEach(e -> recording.enable(e).withoutThreshold());
+        recording.enable("jdk.GarbageCollection");
+        recording.enable("jdk.FileRead").withoutThreshold();
+        recording.enable("jdk.FileWrite").withoutThreshold();
+        recording.enable("jdk.SocketRead").withoutThreshold();
+        recording.enable("jdk.ExecutionSample");
+        recording.start();
+        return recording;
+    }
 
-            generateLauncher();
-            logger.info("generated launcher");
+    private void stopRecording(
+        Recording recording)
+    {
+        Path recordingFile = outputDir.resolve("rym-install.jfr");
+        try
+        {
+            recording.stop();
+            createDirectories(outputDir);
+            recording.dump(recordingFile);
+            logger.info(String.format("recorded %s", recordingFile));
         }
-        catch (Exception ex)
+        catch (IOException ex)
         {
-            logger.error(String.format("Error: %s", ex.getMessage()));
-            throw new RuntimeException(ex);
+            logger.warn(String.format("unable to write %s: %s", recordingFile, ex.getMessage()));
         }
         finally
         {
-            if (!silent)
-            {
-                logger.sumupProblems();
-            }
+            recording.close();
         }
     }
 
-    private void readSettings(
-        Path settingsDir) throws IOException, PlexusCipherException
+    @Override
+    protected void configure(
+        RymConfiguration config)
+    {
+        profile = imageProfile(config);
+        resolveLauncher(config);
+    }
+
+    private void installModules(
+        Collection<RymArtifact> artifacts,
+        Path lockFile) throws IOException
     {
-        Path settingsFile = settingsDir.resolve("settings.json");
+        createDirectories(modulesDir);
+        createDirectories(generatedDir);
 
-        RymSettings settings = new RymSettings();
-        settings.credentials = emptyList();
+        Path manifestFile = outputDir.resolve("rym-install.json");
+        manifest = readManifest(manifestFile);
+        inputs = installInputs(artifacts, lockFile);
 
-        Jsonb builder = JsonbBuilder.newBuilder()
-                .withConfig(new JsonbConfig().withFormatting(true))
-                .build();
+        Path moduleIndexFile = cacheDir.resolve("modules.json");
+        loadModuleIndex(moduleIndexFile);
 
-        if (Files.exists(settingsFile))
+        try
         {
-            try (InputStream in = newInputStream(settingsFile))
+            RymModule delegate = new RymModule();
+            Collection<RymModule> modules;
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "discover"))
             {
-                settings = builder.fromJson(in, RymSettings.class);
+                modules = discoverModules(artifacts);
+                stage.count(modules.size());
             }
-        }
 
-        if (settings.credentials.size() > 0)
-        {
-            Path securityFile = settingsDir.resolve("security.json");
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "migrate"))
+            {
+                migrateUnnamed(modules, delegate);
+                stage.count(delegate.paths.size());
+            }
+
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "promote"))
+            {
+                generateSystemOnlyAutomatic(modules);
+                stage.count(manifest.promoted.size());
+            }
 
-            RymSecurity security = new RymSecurity();
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "automatic"))
+            {
+                delegateAutomatic(modules, delegate);
+                stage.count(modules.stream().filter(m -> m.delegating).count());
+            }
 
-            if (Files.exists(securityFile))
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "copy"))
             {
-                try (InputStream in = newInputStream(securityFile))
+                copyNonDelegating(modules);
+                stage.count(modules.stream().filter(m -> !m.delegating).count());
+            }
+
+            if (!delegate.paths.isEmpty())
+            {
+                try (RymStageTimer stage = new RymStageTimer(metrics.stages, "delegate"))
                 {
-                    security = builder.fromJson(in, RymSecurity.class);
+                    generateDelegateIfNecessary(delegate, modules);
+                    stage.count(delegate.paths.size());
                 }
             }
 
-            security.secret = decryptSecret(security.secret, SYSTEM_PROPERTY_SEC_LOCATION);
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "link"))
+            {
+                linkModulesIfNecessary(modules);
+                stage.count(modules.size());
+            }
 
-            for (RymCredentials credentials : settings.credentials)
+            try (RymStageTimer stage = new RymStageTimer(metrics.stages, "launcher"))
             {
-                String realm = defaultRealmIfNecessary(credentials);
-                String host = credentials.host;
-                String username = credentials.username;
-                String password = RymSecrets.decryptSecret(credentials.password, security.secret);
+                generateLauncherIfNecessary();
+                stage.count(1);
+            }
+        }
+        finally
+        {
+            writeManifest(manifest, manifestFile);
+            writeModuleIndexIfNecessary(moduleIndexFile);
+        }
+    }
 
-                CredentialsStore.INSTANCE.addCredentials(
-                    realm,
-                    host,
-                    username,
-                    password);
+    private void reportMetrics()
+    {
+        logger.info(String.format("%-10s %10s %10s %14s %14s %8s",
+                "stage", "wall ms", "cpu ms", "bytes read", "bytes written", "count"));
+        for (RymStageMetrics stage : metrics.stages)
+        {
+            logger.info(String.format("%-10s %10d %10d %14d %14d %8d",
+                    stage.name, stage.wallMillis, stage.cpuMillis, stage.bytesRead, stage.bytesWritten, stage.count));
+        }
+
+        if (metricsFile != null)
+        {
+            Jsonb builder = JsonbBuilder.newBuilder()
+                    .withConfig(new JsonbConfig().withFormatting(true))
+                    .build();
+
+            try (OutputStream out = newOutputStream(metricsFile))
+            {
+                builder.toJson(metrics, out);
             }
+            catch (IOException ex)
+            {
+                logger.warn(String.format("unable to write %s: %s", metricsFile, ex.getMessage()));
+            }
+        }
+    }
+
+    private RymImageProfile imageProfile(
+        RymConfiguration config)
+    {
+        String profileName = imageProfile;
+        if (profileName == null && config.image != null)
+        {
+            profileName = config.image.profile;
         }
+        return profileName != null ? RymImageProfile.of(profileName) : RymImageProfile.SIZE;
     }
 
-    private RymConfiguration readOrDefaultConfig(
-        Path rymFile) throws IOException
+    private void resolveLauncher(
+        RymConfiguration config)
     {
-        RymConfiguration config = new RymConfiguration();
-        config.repositories = emptyList();
-        config.imports = emptyList();
-        config.dependencies = emptyList();
+        RymLauncher launcher = config.launcher;
 
-        Jsonb builder = JsonbBuilder.newBuilder()
-                .withConfig(new JsonbConfig().withFormatting(true))
-                .build();
+        launcherOptions = new ArrayList<>(LAUNCHER_OPTIONS);
+        launcherMain = LAUNCHER_MAIN;
+        launcherTraining = new ArrayList<>();
 
-        if (Files.exists(rymFile))
+        if (launcher != null)
         {
-            try (InputStream in = newInputStream(rymFile))
+            if (launcher.options != null)
+            {
+                for (String option : launcher.options)
+                {
+                    if (option == null || !option.startsWith("-") || hasControlCharacter(option))
+                    {
+                        throw new IllegalArgumentException(String.format("invalid launcher option: %s", option));
+                    }
+
+                    if (LAUNCHER_MAIN_OPTIONS.contains(option.split("=", 2)[0]))
+                    {
+                        throw new IllegalArgumentException(
+                            String.format("launcher option %s not supported, use launcher main instead", option));
+                    }
+
+                    launcherOptions.add(option);
+                }
+            }
+
+            if (launcher.properties != null)
+            {
+                for (Map.Entry<String, String> property : new TreeMap<>(launcher.properties).entrySet())
+                {
+                    String name = property.getKey();
+                    String value = property.getValue();
+                    if (!LAUNCHER_PROPERTY_PATTERN.matcher(name).matches() ||
+                        value == null || hasControlCharacter(value))
+                    {
+                        throw new IllegalArgumentException(String.format("invalid launcher property: %s", name));
+                    }
+
+                    launcherOptions.add(String.format("-D%s=%s", name, value));
+                }
+            }
+
+            if (launcher.main != null)
             {
-                config = builder.fromJson(in, RymConfiguration.class);
+                if (!LAUNCHER_MAIN_PATTERN.matcher(launcher.main).matches())
+                {
+                    throw new IllegalArgumentException(String.format("invalid launcher main: %s", launcher.main));
+                }
+
+                launcherMain = launcher.main;
+            }
+
+            if (launcher.training != null)
+            {
+                for (String argument : launcher.training)
+                {
+                    if (argument == null || hasControlCharacter(argument))
+                    {
+                        throw new IllegalArgumentException(String.format("invalid launcher training argument: %s", argument));
+                    }
+
+                    launcherTraining.add(argument);
+                }
             }
         }
+    }
 
-        return config;
+    private static boolean hasControlCharacter(
+        String value)
+    {
+        return value.chars().anyMatch(Character::isISOControl);
     }
 
-    private RymConfiguration overrideConfigIfLocked(
-        RymConfiguration config,
-        Path rymFile,
-        Path lockFile) throws IOException
+    private RymInstallManifest readManifest(
+        Path manifestFile) throws IOException
     {
-        if (Files.exists(lockFile) &&
-            getLastModifiedTime(lockFile).compareTo(getLastModifiedTime(rymFile)) >= 0)
+        RymInstallManifest manifest = new RymInstallManifest();
+
+        if (Files.exists(manifestFile))
         {
             Jsonb builder = JsonbBuilder.newBuilder()
                     .withConfig(new JsonbConfig().withFormatting(true))
                     .build();
 
-            try (InputStream in = newInputStream(lockFile))
+            try (InputStream in = newInputStream(manifestFile))
             {
-                config = builder.fromJson(in, RymConfiguration.class);
+                manifest = builder.fromJson(in, RymInstallManifest.class);
             }
         }
-        return config;
+
+        if (manifest.stages == null)
+        {
+            manifest.stages = new TreeMap<>();
+        }
+
+        if (manifest.promoted == null)
+        {
+            manifest.promoted = new ArrayList<>();
+        }
+
+        return manifest;
     }
 
-    private void writeLockFile(
-        RymConfiguration config,
-        Path lockFile) throws IOException
+    private void writeManifest(
+        RymInstallManifest manifest,
+        Path manifestFile) throws IOException
     {
         Jsonb builder = JsonbBuilder.newBuilder()
                 .withConfig(new JsonbConfig().withFormatting(true))
                 .build();
 
-        createDirectories(lockDir);
-        try (OutputStream out = newOutputStream(lockFile))
+        try (OutputStream out = newOutputStream(manifestFile))
+        {
+            builder.toJson(manifest, out);
+        }
+    }
+
+    private String installInputs(
+        Collection<RymArtifact> artifacts,
+        Path lockFile) throws IOException
+    {
+        RymFingerprint fingerprint = new RymFingerprint()
+                .update(Runtime.version())
+                .update(VERSION);
+
+        if (Files.exists(lockFile))
         {
-            builder.toJson(config, out);
+            RymConfiguration lock;
+            try (InputStream in = newInputStream(lockFile))
+            {
+                lock = JsonbBuilder.create().fromJson(in, RymConfiguration.class);
+            }
+
+            if (lock.artifacts != null)
+            {
+                for (RymLockedArtifact locked : lock.artifacts)
+                {
+                    fingerprint.update(locked.id).update(locked.sha256).update(locked.depends);
+                }
+            }
+        }
+
+        for (RymArtifact artifact : artifacts)
+        {
+            fingerprint.update(artifact.id).update(artifact.path.toString());
+            artifact.depends.stream()
+                .map(RymArtifactId::toString)
+                .sorted()
+                .forEach(fingerprint::update);
+        }
+
+        return fingerprint.digest();
+    }
+
+    private boolean isStageUnchanged(
+        String stage,
+        String fingerprint,
+        Collection<Path> outputs)
+    {
+        boolean unchanged = fingerprint.equals(manifest.stages.get(stage)) &&
+                outputs.stream().allMatch(Files::exists);
+
+        if (unchanged)
+        {
+            logger.info(String.format("%s unchanged", stage));
+        }
+        else
+        {
+            manifest.stages.remove(stage);
         }
+
+        return unchanged;
     }
 
-    private Collection<RymModule> discoverModules(
-        Collection<RymArtifact> artifacts)
+    private void markStageComplete(
+        String stage,
+        String fingerprint)
     {
-        Path[] artifactPaths = artifacts.stream().map(a -> a.path).toArray(Path[]::new);
-        Set<ModuleReference> references = ModuleFinder.of(artifactPaths).findAll();
-        Map<URI, ModuleDescriptor> descriptors = references
-                .stream()
-                .filter(r -> r.location().isPresent())
-                .collect(Collectors.toMap(r -> r.location().get(), r -> r.descriptor()));
+        manifest.stages.put(stage, fingerprint);
+    }
 
+    Collection<RymModule> discoverModules(
+        Collection<RymArtifact> artifacts) throws IOException
+    {
+        Set<String> names = new HashSet<>();
         Collection<RymModule> modules = new LinkedHashSet<>();
         for (RymArtifact artifact : artifacts)
         {
-            URI artifactURI = artifact.path.toUri();
-            ModuleDescriptor descriptor = descriptors.get(artifactURI);
-            RymModule module = descriptor != null ? new RymModule(descriptor, artifact) : new RymModule(artifact);
+            RymModuleIndexEntry entry = indexModule(artifact.path);
+            RymModule module = entry.name != null && names.add(entry.name)
+                    ? new RymModule(entry.name, entry.automatic, artifact)
+                    : new RymModule(artifact);
             modules.add(module);
         }
 
         return modules;
     }
 
-    private void migrateUnnamed(
+    private RymModuleIndexEntry indexModule(
+        Path archive) throws IOException
+    {
+        String key = archive.toAbsolutePath().toString();
+        BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        RymModuleIndexEntry entry = moduleIndex.modules.get(key);
+        if (entry == null || entry.size != size || entry.modified != modified)
+        {
+            RymJarEvent event = new RymJarEvent();
+            event.begin();
+            ModuleDescriptor descriptor = moduleDescriptor(archive);
+            RymJarWriter.commit(event, archive, "scan", size);
+
+            String name = descriptor != null ? descriptor.name() : null;
+            boolean automatic = descriptor != null && descriptor.isAutomatic();
+            entry = RymModuleIndexEntry.of(size, modified, name, automatic);
+            moduleIndex.modules.put(key, entry);
+            moduleIndexChanged = true;
+        }
+
+        return entry;
+    }
+
+    void loadModuleIndex(
+        Path indexFile)
+    {
+        RymModuleIndex index = null;
+
+        if (Files.exists(indexFile))
+        {
+            Jsonb builder = JsonbBuilder.create();
+
+            try (InputStream in = newInputStream(indexFile))
+            {
+                index = builder.fromJson(in, RymModuleIndex.class);
+            }
+            catch (Exception ex)
+            {
+                logger.warn(String.format("ignoring module index %s: %s", indexFile, ex.getMessage()));
+            }
+        }
+
+        if (index == null)
+        {
+            index = new RymModuleIndex();
+        }
+
+        if (index.modules == null)
+        {
+            index.modules = new TreeMap<>();
+        }
+
+        moduleIndex = index;
+        moduleIndexChanged = false;
+    }
+
+    private void writeModuleIndexIfNecessary(
+        Path indexFile) throws IOException
+    {
+        if (moduleIndexChanged)
+        {
+            moduleIndex.modules.keySet().removeIf(k -> !Files.exists(Paths.get(k)));
+
+            Jsonb builder = JsonbBuilder.create();
+            String indexPartName = String.format("%s.%d.part", indexFile.getFileName(), ProcessHandle.current().pid());
+            Path indexPart = indexFile.resolveSibling(indexPartName);
+            try (OutputStream out = newOutputStream(indexPart))
+            {
+                builder.toJson(moduleIndex, out);
+            }
+            Files.move(indexPart, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            moduleIndexChanged = false;
+        }
+    }
+
+    void migrateUnnamed(
         Collection <RymModule> modules,
         RymModule delegate)
     {
@@ -344,7 +648,7 @@ public final class RymInstall extends RymCommand
         assert !modules.stream().anyMatch(m -> m.name == null);
     }
 
-    private void delegateAutomatic(
+    void delegateAutomatic(
         Collection <RymModule> modules,
         RymModule delegate)
     {
@@ -384,70 +688,117 @@ public final class RymInstall extends RymCommand
     private void generateSystemOnlyAutomatic(
         Collection<RymModule> modules) throws IOException
     {
-        Map<RymModule, Path> promotions = new IdentityHashMap<>();
+        Path generatedModulesDir = generatedDir.resolve("modules");
 
-        for (RymModule module : modules)
+        List<RymModule> candidates = modules.stream()
+                .filter(m -> m.automatic && m.depends.isEmpty())
+                .collect(toList());
+
+        RymFingerprint fingerprint = new RymFingerprint().update(inputs);
+        for (RymModule module : candidates)
         {
-            if (module.automatic && module.depends.isEmpty())
+            fingerprint.update(module.name);
+            for (Path path : module.paths)
             {
-                Path generatedModulesDir = generatedDir.resolve("modules");
-                Path generatedModuleDir = generatedModulesDir.resolve(module.name);
-
-                deleteDirectories(generatedModuleDir);
-
-                Files.createDirectories(generatedModuleDir);
+                fingerprint.update(path);
+            }
+        }
+        String promoteInputs = fingerprint.digest();
 
-                assert module.paths.size() == 1;
-                Path artifactPath = module.paths.iterator().next();
+        List<Path> promotedPaths = manifest.promoted.stream()
+                .map(n -> generatedModulesDir.resolve(String.format("%s.jar", n)))
+                .collect(toList());
+        boolean unchanged = isStageUnchanged("promote", promoteInputs, promotedPaths);
 
-                ToolProvider jdeps = ToolProvider.findFirst("jdeps").get();
-                jdeps.run(
-                    System.out,
-                    System.err,
-                    "--generate-module-info", generatedModulesDir.toString(),
-                    artifactPath.toString());
+        Map<RymModule, Path> promotions = new IdentityHashMap<>();
 
-                Path generatedModuleInfo = generatedModuleDir.resolve(MODULE_INFO_JAVA_FILENAME);
-                if (Files.exists(generatedModuleInfo))
+        if (unchanged)
+        {
+            for (RymModule module : candidates)
+            {
+                if (manifest.promoted.contains(module.name))
                 {
-                    expandJar(generatedModuleDir, artifactPath);
-
-                    ToolProvider javac = ToolProvider.findFirst("javac").get();
-                    javac.run(
-                            System.out,
-                            System.err,
-                            "-d", generatedModuleDir.toString(),
-                            generatedModuleInfo.toString());
-
-                    Path compiledModuleInfo = generatedModuleDir.resolve(MODULE_INFO_CLASS_FILENAME);
-                    assert Files.exists(compiledModuleInfo);
-
                     Path generatedModulePath = generatedModulesDir.resolve(String.format("%s.jar", module.name));
-                    JarEntry moduleInfoEntry = new JarEntry(MODULE_INFO_CLASS_FILENAME);
-                    moduleInfoEntry.setTime(318240000000L);
-                    extendJar(artifactPath, generatedModulePath, moduleInfoEntry, compiledModuleInfo);
-
                     promotions.put(module, generatedModulePath);
                 }
             }
         }
+        else
+        {
+            List<Path> generatedModulePaths =
+                    invokeAll(candidates, module -> () -> promoteAutomatic(generatedModulesDir, module));
+            for (int index = 0; index < candidates.size(); index++)
+            {
+                Path generatedModulePath = generatedModulePaths.get(index);
+                if (generatedModulePath != null)
+                {
+                    promotions.put(candidates.get(index), generatedModulePath);
+                }
+            }
+        }
 
-        for (Map.Entry<RymModule, Path> entry : promotions.entrySet())
+        if (!unchanged)
         {
-            RymModule module = entry.getKey();
-            Path newArtifactPath = entry.getValue();
+            manifest.promoted = candidates.stream()
+                    .filter(promotions::containsKey)
+                    .map(m -> m.name)
+                    .sorted()
+                    .collect(toList());
+            markStageComplete("promote", promoteInputs);
+        }
 
-            ModuleDescriptor descriptor = moduleDescriptor(newArtifactPath);
-            assert descriptor != null;
+        for (RymModule module : candidates)
+        {
+            Path newArtifactPath = promotions.get(module);
+            if (newArtifactPath == null)
+            {
+                continue;
+            }
+
+            RymModuleIndexEntry entry = indexModule(newArtifactPath);
+            assert entry.name != null;
 
             RymArtifact newArtifact = new RymArtifact(module.id, newArtifactPath, module.depends);
-            RymModule promotion = new RymModule(descriptor, newArtifact);
+            RymModule promotion = new RymModule(entry.name, entry.automatic, newArtifact);
 
             modules.remove(module);
             modules.add(promotion);
         }
     }
 
+    private Path promoteAutomatic(
+        Path generatedModulesDir,
+        RymModule module) throws IOException
+    {
+        Path generatedModulePath = generatedModulesDir.resolve(String.format("%s.jar", module.name));
+        Path generatedModuleDir = generatedModulesDir.resolve(module.name);
+
+        deleteDirectories(generatedModuleDir);
+        Files.deleteIfExists(generatedModulePath);
+
+        Files.createDirectories(generatedModuleDir);
+
+        assert module.paths.size() == 1;
+        Path artifactPath = module.paths.iterator().next();
+
+        runTool("jdeps",
+            "--generate-module-info", generatedModulesDir.toString(),
+            artifactPath.toString());
+
+        Path generatedModuleInfo = generatedModuleDir.resolve(MODULE_INFO_JAVA_FILENAME);
+        if (!Files.exists(generatedModuleInfo))
+        {
+            return null;
+        }
+
+        String moduleInfoContents = Files.readString(generatedModuleInfo);
+        byte[] compiledModuleInfo = new RymModuleCompiler().compile(artifactPath, moduleInfoContents);
+
+        extendJar(artifactPath, generatedModulePath, MODULE_INFO_CLASS_FILENAME, compiledModuleInfo);
+
+        return generatedModulePath;
+    }
+
     private void copyNonDelegating(
         Collection<RymModule> modules) throws IOException
     {
@@ -463,6 +814,39 @@ public final class RymInstall extends RymCommand
         }
     }
 
+    private void generateDelegateIfNecessary(
+        RymModule delegate,
+        Collection<RymModule> modules) throws IOException
+    {
+        RymFingerprint fingerprint = new RymFingerprint()
+                .update(inputs)
+                .update(ignoreMissingDependencies);
+        for (Path path : delegate.paths)
+        {
+            fingerprint.update(path);
+        }
+
+        List<Path> outputs = new ArrayList<>();
+        outputs.add(modulePath(delegate));
+        modules.stream()
+            .filter(m -> m.delegating)
+            .map(m -> m.name)
+            .sorted()
+            .forEach(fingerprint::update);
+        modules.stream()
+            .filter(m -> m.delegating)
+            .map(this::modulePath)
+            .forEach(outputs::add);
+        String delegateInputs = fingerprint.digest();
+
+        if (!isStageUnchanged("delegate", delegateInputs, outputs))
+        {
+            generateDelegate(delegate);
+            generateDelegating(modules);
+            markStageComplete("delegate", delegateInputs);
+        }
+    }
+
     private void generateDelegate(
         RymModule delegate) throws IOException
     {
@@ -471,67 +855,7 @@ public final class RymInstall extends RymCommand
         Files.createDirectories(generatedModulesDir);
 
         Path generatedDelegatePath = generatedModulesDir.resolve(String.format("%s.jar", delegate.name));
-        try (JarOutputStream moduleJar = new JarOutputStream(Files.newOutputStream(generatedDelegatePath)))
-        {
-            Path moduleInfoPath = Paths.get(MODULE_INFO_CLASS_FILENAME);
-            Path manifestPath = Paths.get("META-INF", "MANIFEST.MF");
-            Path servicesPath = Paths.get("META-INF", "services");
-            Path excludedPackage = Paths.get("org", "eclipse", "yasson", "internal", "components");
-            String excludedClass = "BeanManagerInstanceCreator";
-            Set<String> entryNames = new HashSet<>();
-            Map<String, String> services = new HashMap<>();
-            for (Path path : delegate.paths)
-            {
-                try (JarFile artifactJar = new JarFile(path.toFile()))
-                {
-                    for (JarEntry entry : Collections.list(artifactJar.entries()))
-                    {
-                        String entryName = entry.getName();
-                        Path entryPath = Paths.get(entryName);
-                        if (entryPath.equals(moduleInfoPath) ||
-                            entryPath.equals(manifestPath) ||
-                            (entryPath.startsWith(excludedPackage)) &&
-                             entryPath.getFileName().toString().startsWith(excludedClass))
-                        {
-                            continue;
-                        }
-
-                        try (InputStream input = artifactJar.getInputStream(entry))
-                        {
-                            if (entryPath.startsWith(servicesPath) &&
-                                entryPath.getNameCount() - servicesPath.getNameCount() == 1)
-                            {
-                                Path servicePath = servicesPath.relativize(entryPath);
-                                assert servicePath.getNameCount() == 1;
-                                String serviceName = servicePath.toString();
-                                String serviceImpl = new String(input.readAllBytes(), UTF_8);
-                                String existing = services.getOrDefault(serviceName, "");
-                                services.put(serviceName, existing.concat(serviceImpl));
-                            }
-                            else if (entryNames.add(entryName))
-                            {
-                                moduleJar.putNextEntry(entry);
-                                moduleJar.write(input.readAllBytes());
-                                moduleJar.closeEntry();
-                            }
-                        }
-                    }
-                }
-            }
-
-            for (Map.Entry<String, String> service : services.entrySet())
-            {
-                String serviceName = service.getKey();
-                Path servicePath = servicesPath.resolve(serviceName);
-                String serviceImpl = service.getValue();
-
-                JarEntry newEntry = new JarEntry(servicePath.toString());
-                newEntry.setTime(318240000000L);
-                moduleJar.putNextEntry(newEntry);
-                moduleJar.write(serviceImpl.getBytes(UTF_8));
-                moduleJar.closeEntry();
-            }
-        }
+        assembleDelegate(delegate, generatedDelegatePath);
 
         List<String> jdepsArgs = Arrays.asList(
             "--generate-module-info", generatedModulesDir.toString(),
@@ -541,11 +865,7 @@ public final class RymInstall extends RymCommand
             jdepsArgs = new LinkedList<>(jdepsArgs);
             jdepsArgs.add(0, "--ignore-missing-deps");
         }
-        ToolProvider jdeps = ToolProvider.findFirst("jdeps").get();
-        jdeps.run(
-            System.out,
-            System.err,
-            jdepsArgs.toArray(String[]::new));
+        runTool("jdeps", jdepsArgs.toArray(String[]::new));
 
         Path generatedModuleInfo = generatedDelegateDir.resolve(MODULE_INFO_JAVA_FILENAME);
         assert Files.exists(generatedModuleInfo);
@@ -562,119 +882,418 @@ public final class RymInstall extends RymCommand
 
         if (!uses.isEmpty())
         {
-            Files.writeString(generatedModuleInfo,
-                    moduleInfoContents.replace(
-                            "}",
-                            String.join("\n", uses) + "\n}"));
+            moduleInfoContents = moduleInfoContents.replace(
+                    "}",
+                    String.join("\n", uses) + "\n}");
+            Files.writeString(generatedModuleInfo, moduleInfoContents);
         }
 
-        expandJar(generatedDelegateDir, generatedDelegatePath);
+        byte[] compiledModuleInfo = new RymModuleCompiler().compile(generatedDelegatePath, moduleInfoContents);
 
-        ToolProvider javac = ToolProvider.findFirst("javac").get();
-        javac.run(
-                System.out,
-                System.err,
-                "-d", generatedDelegateDir.toString(),
-                generatedModuleInfo.toString());
+        Path delegatePath = modulePath(delegate);
+        extendJar(generatedDelegatePath, delegatePath, MODULE_INFO_CLASS_FILENAME, compiledModuleInfo);
+    }
 
-        Path compiledModuleInfo = generatedDelegateDir.resolve(MODULE_INFO_CLASS_FILENAME);
-        assert Files.exists(compiledModuleInfo);
+    void assembleDelegate(
+        RymModule delegate,
+        Path generatedDelegatePath) throws IOException
+    {
+        Path moduleInfoPath = Paths.get(MODULE_INFO_CLASS_FILENAME);
+        Path manifestPath = Paths.get("META-INF", "MANIFEST.MF");
+        Path servicesPath = Paths.get("META-INF", "services");
+        Path excludedPackage = Paths.get("org", "eclipse", "yasson", "internal", "components");
+        String excludedClass = "BeanManagerInstanceCreator";
+
+        List<Path> paths = new ArrayList<>(delegate.paths);
+        List<DelegateSource> sources = invokeAll(paths, path -> () ->
+        {
+            DelegateSource source = new DelegateSource();
+            RymJarEvent event = new RymJarEvent();
+            event.begin();
+            try (JarFile artifactJar = new JarFile(path.toFile()))
+            {
+                for (JarEntry entry : Collections.list(artifactJar.entries()))
+                {
+                    String entryName = entry.getName();
+                    Path entryPath = Paths.get(entryName);
+                    if (entryPath.equals(moduleInfoPath) ||
+                        entryPath.equals(manifestPath) ||
+                        (entryPath.startsWith(excludedPackage)) &&
+                         entryPath.getFileName().toString().startsWith(excludedClass))
+                    {
+                        continue;
+                    }
 
-        Path delegatePath = modulePath(delegate);
-        JarEntry moduleInfoEntry = new JarEntry(MODULE_INFO_CLASS_FILENAME);
-        moduleInfoEntry.setTime(318240000000L);
-        extendJar(generatedDelegatePath, delegatePath, moduleInfoEntry, compiledModuleInfo);
+                    if (entryPath.startsWith(servicesPath) &&
+                        entryPath.getNameCount() - servicesPath.getNameCount() == 1)
+                    {
+                        try (InputStream input = artifactJar.getInputStream(entry))
+                        {
+                            Path servicePath = servicesPath.relativize(entryPath);
+                            assert servicePath.getNameCount() == 1;
+                            String serviceName = servicePath.toString();
+                            String serviceImpl = new String(input.readAllBytes(), UTF_8);
+                            source.services.merge(serviceName, serviceImpl, String::concat);
+                        }
+                    }
+                    else
+                    {
+                        source.entryNames.add(entryName);
+                    }
+                }
+            }
+            RymJarWriter.commit(event, path, "scan", Files.size(path));
+            return source;
+        });
+
+        try (RymJarWriter moduleJar = new RymJarWriter(generatedDelegatePath))
+        {
+            Set<String> entryNames = new HashSet<>();
+            Map<String, String> services = new TreeMap<>();
+            for (int index = 0; index < paths.size(); index++)
+            {
+                DelegateSource source = sources.get(index);
+                source.services.forEach((n, i) -> services.merge(n, i, String::concat));
+                moduleJar.copyEntries(paths.get(index), n -> source.entryNames.contains(n) && entryNames.add(n));
+            }
+
+            for (Map.Entry<String, String> service : services.entrySet())
+            {
+                String serviceName = service.getKey();
+                Path servicePath = servicesPath.resolve(serviceName);
+                String serviceImpl = service.getValue();
+
+                moduleJar.putEntry(servicePath.toString(), 318240000000L, serviceImpl.getBytes(UTF_8));
+            }
+        }
     }
 
     private void generateDelegating(
         Collection<RymModule> modules) throws IOException
     {
+        RymModuleInfoWriter writer = new RymModuleInfoWriter();
         for (RymModule module : modules)
         {
             if (module.delegating)
             {
-                Path generatedModulesDir = generatedDir.resolve("modules");
-                Path generatedModuleDir = generatedModulesDir.resolve(module.name);
-                Files.createDirectories(generatedModuleDir);
-
-                Path generatedModuleInfo = generatedModuleDir.resolve(MODULE_INFO_JAVA_FILENAME);
-                Files.write(generatedModuleInfo, Arrays.asList(
-                        String.format("open module %s {", module.name),
-                        String.format("    requires transitive %s;", RymModule.DELEGATE_NAME),
-                        "}"));
-
-                ToolProvider javac = ToolProvider.findFirst("javac").get();
-                javac.run(
-                        System.out,
-                        System.err,
-                        "-d", generatedModuleDir.toString(),
-                        "--module-path", modulesDir.toString(),
-                        generatedModuleInfo.toString());
+                byte[] moduleInfo = writer.writeOpenDelegating(module.name, RymModule.DELEGATE_NAME);
 
                 Path modulePath = modulePath(module);
-                try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(modulePath)))
+                try (RymJarWriter jar = new RymJarWriter(modulePath))
                 {
-                    JarEntry newEntry = new JarEntry(MODULE_INFO_CLASS_FILENAME);
-                    newEntry.setTime(318240000000L);
-                    jar.putNextEntry(newEntry);
-                    jar.write(Files.readAllBytes(generatedModuleDir.resolve(MODULE_INFO_CLASS_FILENAME)));
-                    jar.closeEntry();
+                    jar.putEntry(MODULE_INFO_CLASS_FILENAME, 318240000000L, moduleInfo);
                 }
             }
         }
     }
 
-    private void linkModules(
+    private void linkModulesIfNecessary(
         Collection<RymModule> modules) throws IOException
     {
-        ToolProvider jlink = ToolProvider.findFirst("jlink").get();
+        List<String> options = linkOptions(modules);
+
+        RymFingerprint fingerprint = new RymFingerprint()
+                .update(Runtime.version())
+                .update(profile)
+                .update(appCds);
+        options.forEach(fingerprint::update);
+        List<Path> modulePaths;
+        try (Stream<Path> paths = Files.list(modulesDir))
+        {
+            modulePaths = paths.sorted().collect(toList());
+        }
+        for (Path modulePath : modulePaths)
+        {
+            fingerprint.update(modulePath);
+        }
+        String linkInputs = fingerprint.digest();
+
+        String imageName = imageDir.getFileName().toString();
+        Path stagingDir = imageDir.resolveSibling(String.format("%s.staging", imageName));
+        Path previousDir = imageDir.resolveSibling(String.format("%s.previous", imageName));
+
+        if (!Files.exists(imageDir) && Files.exists(previousDir))
+        {
+            // interrupted between moving the image aside and moving the staged image into place
+            Files.move(previousDir, imageDir, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("recovered previous image");
+        }
+
+        Path imageDigestFile = imageDir.resolve(IMAGE_DIGEST_FILENAME);
+        if (Files.exists(imageDigestFile) && linkInputs.equals(Files.readString(imageDigestFile)))
+        {
+            logger.info("link unchanged");
+        }
+        else
+        {
+            deleteDirectories(stagingDir);
+            linkModules(options, stagingDir);
+            if (profile.archiveClasses || appCds)
+            {
+                archiveClasses(stagingDir);
+            }
+            Files.writeString(stagingDir.resolve(IMAGE_DIGEST_FILENAME), linkInputs);
+
+            deleteDirectories(previousDir);
+            if (Files.exists(imageDir))
+            {
+                Files.move(imageDir, previousDir, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.move(stagingDir, imageDir, StandardCopyOption.ATOMIC_MOVE);
+            deleteDirectories(previousDir);
+
+            logger.info("linked modules");
+        }
+
+        if (appCds)
+        {
+            archiveLauncherClassesIfNecessary(linkInputs);
+        }
+    }
+
+    private void archiveLauncherClassesIfNecessary(
+        String linkInputs) throws IOException
+    {
+        RymFingerprint fingerprint = new RymFingerprint()
+                .update(linkInputs)
+                .update(launcherMain)
+                .update(trainingTimeout);
+        launcherOptions.forEach(fingerprint::update);
+        launcherTraining.forEach(fingerprint::update);
+        String archiveInputs = fingerprint.digest();
+
+        Path archiveDigestFile = imageDir.resolve(LAUNCHER_ARCHIVE_DIGEST_PATH);
+        if (Files.exists(archiveDigestFile) && archiveInputs.equals(Files.readString(archiveDigestFile)))
+        {
+            logger.info("launcher archive unchanged");
+        }
+        else
+        {
+            Files.deleteIfExists(archiveDigestFile);
+            Files.deleteIfExists(imageDir.resolve(LAUNCHER_ARCHIVE_PATH));
+            if (launcherTraining.isEmpty())
+            {
+                logger.warn("no launcher training arguments, skipped archiving launcher classes");
+            }
+            else
+            {
+                archiveLauncherClasses(imageDir);
+            }
+            Files.writeString(archiveDigestFile, archiveInputs);
+        }
+    }
+
+    private List<String> linkOptions(
+        Collection<RymModule> modules)
+    {
+        return linkOptions(profile, debug, modulesDir, modules.stream().map(m -> m.name).collect(toList()));
+    }
+
+    static List<String> linkOptions(
+        RymImageProfile profile,
+        boolean debug,
+        Path modulesDir,
+        Collection<String> moduleNames)
+    {
+        boolean debugImage = debug || profile == RymImageProfile.DEBUG;
 
         List<String> extraModuleNames = new ArrayList<>();
-        if (debug)
+        if (debugImage)
         {
             extraModuleNames.add("jdk.jdwp.agent");
         }
 
-        Stream<String> moduleNames = Stream.concat(modules.stream().map(m -> m.name), extraModuleNames.stream());
+        Stream<String> addModuleNames = Stream.concat(moduleNames.stream(), extraModuleNames.stream());
 
-        List<String> args = new ArrayList<>(Arrays.asList(
+        List<String> options = new ArrayList<>(Arrays.asList(
             "--module-path", modulesDir.toString(),
-            "--output", imageDir.toString(),
             "--no-header-files",
             "--no-man-pages",
-            "--compress", "2",
-            "--add-modules", moduleNames.collect(Collectors.joining(","))));
+            "--compress", Integer.toString(profile.compress),
+            "--add-modules", addModuleNames.sorted().collect(Collectors.joining(","))));
 
-        args.add("--ignore-signing-information");
+        options.add("--ignore-signing-information");
 
-        if (!debug)
+        if (profile.stripDebug && !debugImage)
         {
-            args.add("--strip-debug");
+            options.add("--strip-debug");
         }
 
+        return options;
+    }
+
+    private void linkModules(
+        List<String> options,
+        Path outputDir) throws IOException
+    {
+        List<String> args = new ArrayList<>(options);
+        args.add("--output");
+        args.add(outputDir.toString());
+
         if (!silent)
         {
             args.add("--verbose");
         }
 
-        jlink.run(
-            System.out,
-            System.err,
-            args.toArray(String[]::new));
+        int status = runTool("jlink", args.toArray(String[]::new));
+
+        if (status != 0)
+        {
+            throw new IOException(String.format("jlink failed with exit code %d", status));
+        }
+    }
+
+    private int runTool(
+        String name,
+        String... args)
+    {
+        ToolProvider tool = ToolProvider.findFirst(name).get();
+
+        RymToolEvent event = new RymToolEvent();
+        event.begin();
+
+        int status = -1;
+        try
+        {
+            status = tool.run(System.out, System.err, args);
+            return status;
+        }
+        finally
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.tool = name;
+                event.arguments = String.join(" ", args);
+                event.status = status;
+                event.commit();
+            }
+        }
+    }
+
+    private void archiveClasses(
+        Path imageDir) throws IOException
+    {
+        Path java = imageDir.resolve("bin").resolve("java");
+        Process dump = new ProcessBuilder(java.toString(), "-Xshare:dump")
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        try
+        {
+            int status = dump.waitFor();
+            if (status != 0)
+            {
+                throw new IOException(String.format("class data sharing archive failed with exit code %d", status));
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+
+        logger.info("archived classes");
     }
 
-    private void generateLauncher() throws IOException
+    private void archiveLauncherClasses(
+        Path imageDir) throws IOException
+    {
+        Path java = imageDir.resolve("bin").resolve("java");
+        Path archive = imageDir.resolve(LAUNCHER_ARCHIVE_PATH);
+        Path partial = archive.resolveSibling(String.format("%s.part", archive.getFileName()));
+        Files.deleteIfExists(partial);
+
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        command.add(String.format("-XX:ArchiveClassesAtExit=%s", partial));
+        command.addAll(launcherOptions);
+        command.add("-m");
+        command.add(launcherMain);
+        command.addAll(launcherTraining);
+
+        Process training = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        try
+        {
+            if (!training.waitFor(trainingTimeout.toMillis(), TimeUnit.MILLISECONDS))
+            {
+                // a normal termination runs the exit hooks, which write the archive of the classes loaded so far
+                logger.info(String.format("stopping launcher training run after %s", trainingTimeout));
+                training.destroy();
+                if (!training.waitFor(TRAINING_EXIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+                {
+                    training.destroyForcibly().waitFor();
+                    Files.deleteIfExists(partial);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            training.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+
+        if (Files.exists(partial))
+        {
+            Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("archived launcher classes");
+        }
+        else
+        {
+            logger.warn(String.format("launcher training run exited with code %d without archiving classes",
+                    training.exitValue()));
+        }
+    }
+
+    private void generateLauncherIfNecessary() throws IOException
     {
         Path ryPath = launcherDir.resolve("ry");
-        Files.write(ryPath, Arrays.asList(
+        List<String> command = new ArrayList<>();
+        command.add(String.format("exec %s/bin/java", imageDir));
+        if (Files.exists(imageDir.resolve(LAUNCHER_ARCHIVE_PATH)))
+        {
+            command.add(String.format("-XX:SharedArchiveFile=%s/%s", imageDir, LAUNCHER_ARCHIVE_PATH));
+        }
+        launcherOptions.stream().map(RymInstall::quoteIfNecessary).forEach(command::add);
+        command.add("$JAVA_OPTIONS");
+        command.add(String.format("-m %s \"$@\"", launcherMain));
+
+        List<String> launcher = Arrays.asList(
                 "#!/bin/sh",
                 "cd \"${0%/*}\"",
-                String.format(String.join(" ", Arrays.asList(
-                    "exec %s/bin/java",
-                    "--add-opens java.base/sun.nio.ch=org.agrona.core",
-                    "$JAVA_OPTIONS",
-                    "-m org.reaktivity.ry/org.reaktivity.ry.internal.RyMain \"$@\"")),
-                    imageDir)));
+                String.join(" ", command));
+
+        RymFingerprint fingerprint = new RymFingerprint().update(inputs);
+        launcher.forEach(fingerprint::update);
+        String launcherInputs = fingerprint.digest();
+
+        if (!isStageUnchanged("launcher", launcherInputs, singletonList(ryPath)))
+        {
+            generateLauncher(ryPath, launcher);
+            logger.info("generated launcher");
+            markStageComplete("launcher", launcherInputs);
+        }
+    }
+
+    static String quoteIfNecessary(
+        String argument)
+    {
+        return LAUNCHER_UNQUOTED_PATTERN.matcher(argument).matches()
+                ? argument
+                : String.format("'%s'", argument.replace("'", "'\\''"));
+    }
+
+    private void generateLauncher(
+        Path ryPath,
+        List<String> launcher) throws IOException
+    {
+        Files.write(ryPath, launcher);
         ryPath.toFile().setExecutable(true);
     }
 
@@ -696,62 +1315,57 @@ public final class RymInstall extends RymCommand
         return modulesDir.resolve(String.format("%s.jar", module.name));
     }
 
-    private void expandJar(
-        Path targetDir,
-        Path sourcePath) throws IOException
+    void extendJar(
+        Path sourcePath,
+        Path targetPath,
+        String newEntryName,
+        byte[] newEntryContents) throws IOException
     {
-        try (JarFile sourceJar = new JarFile(sourcePath.toFile()))
+        try (RymJarWriter targetJar = new RymJarWriter(targetPath))
         {
-            for (JarEntry entry : list(sourceJar.entries()))
-            {
-                Path entryPath = targetDir.resolve(entry.getName());
-                if (entry.isDirectory())
-                {
-                    createDirectories(entryPath);
-                }
-                else
-                {
-                    Path parentPath = entryPath.getParent();
-                    if (!Files.exists(parentPath))
-                    {
-                        createDirectories(parentPath);
-                    }
-
-                    try (InputStream input = sourceJar.getInputStream(entry))
-                    {
-                        Files.write(entryPath, input.readAllBytes());
-                    }
-                }
-            }
+            targetJar.copyJar(sourcePath);
+            targetJar.putEntry(newEntryName, 318240000000L, newEntryContents);
         }
     }
 
-    private void extendJar(
-        Path sourcePath,
-        Path targetPath,
-        JarEntry newEntry,
-        Path newEntryPath) throws IOException
+    private <T, R> List<R> invokeAll(
+        List<T> inputs,
+        Function<T, Callable<R>> task) throws IOException
     {
-        try (JarFile sourceJar = new JarFile(sourcePath.toFile());
-             JarOutputStream targetJar = new JarOutputStream(Files.newOutputStream(targetPath)))
+        List<R> results = new ArrayList<>(inputs.size());
+        if (!inputs.isEmpty())
         {
-            for (JarEntry entry : list(sourceJar.entries()))
+            int threads = Math.min(inputs.size(), Runtime.getRuntime().availableProcessors());
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try
             {
-                targetJar.putNextEntry(entry);
-                if (!entry.isDirectory())
+                List<Future<R>> futures = new ArrayList<>(inputs.size());
+                for (T input : inputs)
                 {
-                    try (InputStream input = sourceJar.getInputStream(entry))
-                    {
-                        targetJar.write(input.readAllBytes());
-                    }
+                    futures.add(executor.submit(task.apply(input)));
                 }
-                targetJar.closeEntry();
-            }
 
-            targetJar.putNextEntry(newEntry);
-            targetJar.write(Files.readAllBytes(newEntryPath));
-            targetJar.closeEntry();
+                for (Future<R> future : futures)
+                {
+                    results.add(future.get());
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            catch (ExecutionException ex)
+            {
+                Throwable cause = ex.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
         }
+        return results;
     }
 
     private void deleteDirectories(
@@ -766,15 +1380,9 @@ public final class RymInstall extends RymCommand
         }
     }
 
-    private String defaultRealmIfNecessary(
-        RymCredentials credentials)
-    {
-        return ofNullable(credentials.realm)
-            .orElse(DEFAULT_REALMS.get(credentials.host));
-    }
-
-    private static Map<String, String> initDefaultRealms()
+    private static final class DelegateSource
     {
-        return singletonMap("maven.pkg.github.com", "GitHub Package Registry");
+        private final Set<String> entryNames = new HashSet<>();
+        private final Map<String, String> services = new LinkedHashMap<>();
     }
 }
@@ -0,0 +1,527 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.list;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import org.reaktivity.rym.internal.commands.install.event.RymJarEvent;
+
+/**
+ * Writes jar files by transferring already compressed entries of source jars verbatim,
+ * so only newly added entries are compressed.
+ */
+public final class RymJarWriter implements AutoCloseable
+{
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_HEADER_SIGNATURE = 0x06054b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int END_HEADER_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xffff;
+
+    private static final int VERSION_DEFLATED = 20;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long ZIP64_MAGIC = 0xffffffffL;
+    private static final int ZIP64_MAGIC_COUNT = 0xffff;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path targetPath;
+    private final FileChannel target;
+    private final ByteArrayOutputStream directory;
+    private final Set<String> names;
+    private int entries;
+
+    public RymJarWriter(
+        Path targetPath) throws IOException
+    {
+        this.targetPath = targetPath;
+        this.target = FileChannel.open(targetPath, CREATE, TRUNCATE_EXISTING, WRITE);
+        this.directory = new ByteArrayOutputStream();
+        this.names = new HashSet<>();
+    }
+
+    public void copyJar(
+        Path sourcePath) throws IOException
+    {
+        RymJarEvent event = new RymJarEvent();
+        event.begin();
+
+        long position = target.position();
+        try (FileChannel source = FileChannel.open(sourcePath, READ))
+        {
+            Directory sourceDirectory = Directory.read(source);
+            if (sourceDirectory != null && entries == 0)
+            {
+                for (Entry entry : sourceDirectory.entries)
+                {
+                    checkDuplicate(entry.name);
+                }
+                transfer(source, 0L, sourceDirectory.offset);
+                for (Entry entry : sourceDirectory.entries)
+                {
+                    directory.write(entry.header);
+                    entries++;
+                }
+            }
+            else
+            {
+                copyEntries(source, sourceDirectory, sourcePath, n -> true);
+            }
+        }
+
+        commit(event, sourcePath, "read", target.position() - position);
+    }
+
+    public void copyEntries(
+        Path sourcePath,
+        Predicate<String> filter) throws IOException
+    {
+        RymJarEvent event = new RymJarEvent();
+        event.begin();
+
+        long position = target.position();
+        try (FileChannel source = FileChannel.open(sourcePath, READ))
+        {
+            copyEntries(source, Directory.read(source), sourcePath, filter);
+        }
+
+        commit(event, sourcePath, "read", target.position() - position);
+    }
+
+    public void putEntry(
+        String name,
+        long time,
+        byte[] contents) throws IOException
+    {
+        putEntry(name, time, new ByteArrayInputStream(contents));
+    }
+
+    public void putEntry(
+        String name,
+        long time,
+        InputStream input) throws IOException
+    {
+        checkDuplicate(name);
+
+        byte[] encodedName = name.getBytes(UTF_8);
+        long offset = target.position();
+        int dosTime = dosTime(time);
+
+        ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_LENGTH + encodedName.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) VERSION_DEFLATED);
+        header.putShort((short) FLAG_UTF8);
+        header.putShort((short) METHOD_DEFLATED);
+        header.putInt(dosTime);
+        header.putInt(0);
+        header.putInt(0);
+        header.putInt(0);
+        header.putShort((short) encodedName.length);
+        header.putShort((short) 0);
+        header.put(encodedName);
+        header.flip();
+        write(header);
+
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] deflated = new byte[BUFFER_SIZE];
+            for (int read = input.read(buffer); read != -1; read = input.read(buffer))
+            {
+                crc.update(buffer, 0, read);
+                deflater.setInput(buffer, 0, read);
+                while (!deflater.needsInput())
+                {
+                    write(ByteBuffer.wrap(deflated, 0, deflater.deflate(deflated)));
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished())
+            {
+                write(ByteBuffer.wrap(deflated, 0, deflater.deflate(deflated)));
+            }
+
+            long compressedSize = deflater.getBytesWritten();
+            long size = deflater.getBytesRead();
+            checkLimit(compressedSize);
+            checkLimit(size);
+
+            ByteBuffer sizes = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            sizes.putInt((int) crc.getValue());
+            sizes.putInt((int) compressedSize);
+            sizes.putInt((int) size);
+            sizes.flip();
+            while (sizes.hasRemaining())
+            {
+                target.write(sizes, offset + 14 + sizes.position());
+            }
+
+            ByteBuffer central = ByteBuffer.allocate(CENTRAL_HEADER_LENGTH + encodedName.length).order(ByteOrder.LITTLE_ENDIAN);
+            central.putInt(CENTRAL_HEADER_SIGNATURE);
+            central.putShort((short) VERSION_DEFLATED);
+            central.putShort((short) VERSION_DEFLATED);
+            central.putShort((short) FLAG_UTF8);
+            central.putShort((short) METHOD_DEFLATED);
+            central.putInt(dosTime);
+            central.putInt((int) crc.getValue());
+            central.putInt((int) compressedSize);
+            central.putInt((int) size);
+            central.putShort((short) encodedName.length);
+            central.putShort((short) 0);
+            central.putShort((short) 0);
+            central.putShort((short) 0);
+            central.putShort((short) 0);
+            central.putInt(0);
+            central.putInt((int) offset);
+            central.put(encodedName);
+            directory.write(central.array());
+            entries++;
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        RymJarEvent event = new RymJarEvent();
+        event.begin();
+
+        try
+        {
+            long offset = target.position();
+            checkLimit(offset);
+            if (entries >= ZIP64_MAGIC_COUNT)
+            {
+                throw new ZipException(String.format("too many entries: %d", entries));
+            }
+
+            write(ByteBuffer.wrap(directory.toByteArray()));
+
+            ByteBuffer end = ByteBuffer.allocate(END_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            end.putInt(END_HEADER_SIGNATURE);
+            end.putShort((short) 0);
+            end.putShort((short) 0);
+            end.putShort((short) entries);
+            end.putShort((short) entries);
+            end.putInt(directory.size());
+            end.putInt((int) offset);
+            end.putShort((short) 0);
+            end.flip();
+            write(end);
+
+            commit(event, targetPath, "write", target.position());
+        }
+        finally
+        {
+            target.close();
+        }
+    }
+
+    private void copyEntries(
+        FileChannel source,
+        Directory sourceDirectory,
+        Path sourcePath,
+        Predicate<String> filter) throws IOException
+    {
+        if (sourceDirectory != null)
+        {
+            for (Entry entry : sourceDirectory.entries)
+            {
+                if (filter.test(entry.name))
+                {
+                    copyEntry(source, entry);
+                }
+            }
+        }
+        else
+        {
+            try (JarFile sourceJar = new JarFile(sourcePath.toFile()))
+            {
+                for (JarEntry entry : list(sourceJar.entries()))
+                {
+                    if (filter.test(entry.getName()))
+                    {
+                        try (InputStream input = sourceJar.getInputStream(entry))
+                        {
+                            putEntry(entry.getName(), entry.getTime(), input);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void copyEntry(
+        FileChannel source,
+        Entry entry) throws IOException
+    {
+        checkDuplicate(entry.name);
+
+        ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        read(source, header, entry.localOffset);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE)
+        {
+            throw new ZipException(String.format("invalid local header: %s", entry.name));
+        }
+
+        long dataOffset = entry.localOffset + LOCAL_HEADER_LENGTH +
+                Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+        long length = dataOffset + entry.compressedSize - entry.localOffset;
+        if ((entry.flags & FLAG_DATA_DESCRIPTOR) != 0)
+        {
+            ByteBuffer signature = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            read(source, signature, dataOffset + entry.compressedSize);
+            length += signature.getInt(0) == DATA_DESCRIPTOR_SIGNATURE ? 16 : 12;
+        }
+
+        long offset = target.position();
+        checkLimit(offset);
+        transfer(source, entry.localOffset, length);
+
+        ByteBuffer central = ByteBuffer.wrap(entry.header.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        central.putInt(42, (int) offset);
+        directory.write(central.array());
+        entries++;
+    }
+
+    static void commit(
+        RymJarEvent event,
+        Path path,
+        String operation,
+        long bytes)
+    {
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.path = path.toString();
+            event.operation = operation;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    private void checkDuplicate(
+        String name) throws ZipException
+    {
+        if (!names.add(name))
+        {
+            throw new ZipException(String.format("duplicate entry: %s", name));
+        }
+    }
+
+    private void transfer(
+        FileChannel source,
+        long position,
+        long count) throws IOException
+    {
+        while (count > 0)
+        {
+            long transferred = source.transferTo(position, count, target);
+            if (transferred <= 0)
+            {
+                throw new EOFException();
+            }
+            position += transferred;
+            count -= transferred;
+        }
+    }
+
+    private void write(
+        ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            target.write(buffer);
+        }
+    }
+
+    private static void read(
+        FileChannel source,
+        ByteBuffer buffer,
+        long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (source.read(buffer, position + buffer.position()) == -1)
+            {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static void checkLimit(
+        long value) throws ZipException
+    {
+        if (value >= ZIP64_MAGIC)
+        {
+            throw new ZipException("zip64 not supported");
+        }
+    }
+
+    private static int dosTime(
+        long time)
+    {
+        LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = local.getYear() - 1980;
+        return year < 0
+                ? (1 << 21) | (1 << 16)
+                : year << 25 |
+                  local.getMonthValue() << 21 |
+                  local.getDayOfMonth() << 16 |
+                  local.getHour() << 11 |
+                  local.getMinute() << 5 |
+                  local.getSecond() >> 1;
+    }
+
+    private static final class Directory
+    {
+        private final long offset;
+        private final List<Entry> entries;
+
+        private Directory(
+            long offset,
+            List<Entry> entries)
+        {
+            this.offset = offset;
+            this.entries = entries;
+        }
+
+        static Directory read(
+            FileChannel source) throws IOException
+        {
+            long size = source.size();
+            int tailLength = (int) Math.min(size, END_HEADER_LENGTH + MAX_COMMENT_LENGTH);
+            ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+            RymJarWriter.read(source, tail, size - tailLength);
+
+            int end = tailLength - END_HEADER_LENGTH;
+            while (end >= 0 && tail.getInt(end) != END_HEADER_SIGNATURE)
+            {
+                end--;
+            }
+            if (end < 0)
+            {
+                throw new ZipException("end header not found");
+            }
+
+            int count = Short.toUnsignedInt(tail.getShort(end + 10));
+            long directoryLength = Integer.toUnsignedLong(tail.getInt(end + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+            if (count == ZIP64_MAGIC_COUNT || directoryLength == ZIP64_MAGIC || directoryOffset == ZIP64_MAGIC)
+            {
+                return null;
+            }
+
+            ByteBuffer headers = ByteBuffer.allocate((int) directoryLength).order(ByteOrder.LITTLE_ENDIAN);
+            RymJarWriter.read(source, headers, directoryOffset);
+
+            List<Entry> entries = new ArrayList<>(count);
+            int position = 0;
+            for (int index = 0; index < count; index++)
+            {
+                if (headers.getInt(position) != CENTRAL_HEADER_SIGNATURE)
+                {
+                    throw new ZipException("invalid central header");
+                }
+
+                int flags = Short.toUnsignedInt(headers.getShort(position + 8));
+                long compressedSize = Integer.toUnsignedLong(headers.getInt(position + 20));
+                long uncompressedSize = Integer.toUnsignedLong(headers.getInt(position + 24));
+                int nameLength = Short.toUnsignedInt(headers.getShort(position + 28));
+                int extraLength = Short.toUnsignedInt(headers.getShort(position + 30));
+                int commentLength = Short.toUnsignedInt(headers.getShort(position + 32));
+                long localOffset = Integer.toUnsignedLong(headers.getInt(position + 42));
+                if (compressedSize == ZIP64_MAGIC || uncompressedSize == ZIP64_MAGIC || localOffset == ZIP64_MAGIC)
+                {
+                    return null;
+                }
+
+                int headerLength = CENTRAL_HEADER_LENGTH + nameLength + extraLength + commentLength;
+                byte[] header = new byte[headerLength];
+                headers.position(position);
+                headers.get(header);
+                String name = new String(header, CENTRAL_HEADER_LENGTH, nameLength, UTF_8);
+
+                entries.add(new Entry(name, flags, compressedSize, localOffset, header));
+                position += headerLength;
+            }
+
+            return new Directory(directoryOffset, entries);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final String name;
+        private final int flags;
+        private final long compressedSize;
+        private final long localOffset;
+        private final byte[] header;
+
+        private Entry(
+            String name,
+            int flags,
+            long compressedSize,
+            long localOffset,
+            byte[] header)
+        {
+            this.name = name;
+            this.flags = flags;
+            this.compressedSize = compressedSize;
+            this.localOffset = localOffset;
+            this.header = header;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.util.List;
+import java.util.Objects;
+
+public final class RymLockedArtifact
+{
+    public RymDependency id;
+    public List<RymDependency> depends;
+    public String repository;
+    public String path;
+    public String sha256;
+    public String verified;
+
+    public RymLockedArtifact()
+    {
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(id, depends, repository, path, sha256, verified);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymLockedArtifact))
+        {
+            return false;
+        }
+
+        RymLockedArtifact that = (RymLockedArtifact) obj;
+        return Objects.equals(this.id, that.id) &&
+                Objects.equals(this.depends, that.depends) &&
+                Objects.equals(this.repository, that.repository) &&
+                Objects.equals(this.path, that.path) &&
+                Objects.equals(this.sha256, that.sha256) &&
+                Objects.equals(this.verified, that.verified);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s [%s] -> %s", id, path, depends);
+    }
+
+    public static RymLockedArtifact of(
+        RymDependency id,
+        List<RymDependency> depends,
+        String repository,
+        String path,
+        String sha256,
+        String verified)
+    {
+        return new RymLockedArtifact(id, depends, repository, path, sha256, verified);
+    }
+
+    RymLockedArtifact(
+        RymDependency id,
+        List<RymDependency> depends,
+        String repository,
+        String path,
+        String sha256,
+        String verified)
+    {
+        this.id = id;
+        this.depends = depends;
+        this.repository = repository;
+        this.path = path;
+        this.sha256 = sha256;
+        this.verified = verified;
+    }
+}
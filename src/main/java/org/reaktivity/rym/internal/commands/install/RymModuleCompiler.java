@@ -0,0 +1,338 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.joining;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import org.reaktivity.rym.internal.commands.install.event.RymJarEvent;
+import org.reaktivity.rym.internal.commands.install.event.RymToolEvent;
+
+public final class RymModuleCompiler
+{
+    private static final String MODULE_INFO_NAME = "module-info";
+
+    private final JavaCompiler compiler;
+
+    public RymModuleCompiler()
+    {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+    }
+
+    public byte[] compile(
+        Path archive,
+        String moduleInfo) throws IOException
+    {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        RymJarEvent jarEvent = new RymJarEvent();
+        jarEvent.begin();
+        try (JarFile jar = new JarFile(archive.toFile());
+             StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, UTF_8);
+             JarFileManager manager = new JarFileManager(standard, jar))
+        {
+            standard.setLocation(StandardLocation.CLASS_PATH, emptyList());
+            standard.setLocation(StandardLocation.SOURCE_PATH, emptyList());
+
+            JavaFileObject source = new SourceFileObject(moduleInfo);
+            List<String> options = singletonList("-nowarn");
+            RymToolEvent event = new RymToolEvent();
+            event.begin();
+
+            boolean compiled = compiler.getTask(null, manager, diagnostics, options, null, singletonList(source)).call();
+
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.tool = "javac";
+                event.arguments = String.format("%s %s", String.join(" ", options), archive);
+                event.status = compiled ? 0 : 1;
+                event.commit();
+            }
+
+            if (!compiled || manager.compiled == null)
+            {
+                String messages = diagnostics.getDiagnostics().stream()
+                        .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                        .map(d -> d.getMessage(null))
+                        .collect(joining("\n"));
+                throw new IOException(String.format("Unable to compile module-info for %s: %s", archive, messages));
+            }
+
+            return manager.compiled.toByteArray();
+        }
+        finally
+        {
+            RymJarWriter.commit(jarEvent, archive, "scan", archive.toFile().length());
+        }
+    }
+
+    private static final class JarFileManager extends ForwardingJavaFileManager<StandardJavaFileManager>
+    {
+        private final Map<String, List<JavaFileObject>> packages;
+
+        private ByteArrayOutputStream compiled;
+
+        private JarFileManager(
+            StandardJavaFileManager delegate,
+            JarFile jar)
+        {
+            super(delegate);
+            this.packages = new HashMap<>();
+
+            for (JarEntry entry : Collections.list(jar.entries()))
+            {
+                String entryName = entry.getName();
+                if (!entry.isDirectory() &&
+                    entryName.endsWith(Kind.CLASS.extension) &&
+                    !entryName.startsWith("META-INF/"))
+                {
+                    String binaryName = entryName.substring(0, entryName.length() - Kind.CLASS.extension.length())
+                            .replace('/', '.');
+                    int lastDot = binaryName.lastIndexOf('.');
+                    String packageName = lastDot != -1 ? binaryName.substring(0, lastDot) : "";
+                    if (!MODULE_INFO_NAME.equals(binaryName))
+                    {
+                        packages.computeIfAbsent(packageName, p -> new ArrayList<>())
+                                .add(new JarClassFileObject(jar, entry, binaryName));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean hasLocation(
+            Location location)
+        {
+            return location == StandardLocation.CLASS_OUTPUT || super.hasLocation(location);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(
+            Location location,
+            String packageName,
+            Set<Kind> kinds,
+            boolean recurse) throws IOException
+        {
+            Iterable<JavaFileObject> files;
+
+            if (location == StandardLocation.CLASS_OUTPUT)
+            {
+                List<JavaFileObject> classes = new ArrayList<>();
+                if (kinds.contains(Kind.CLASS))
+                {
+                    packages.entrySet().stream()
+                        .filter(e -> e.getKey().equals(packageName) ||
+                                     recurse && e.getKey().startsWith(String.format("%s.", packageName)))
+                        .forEach(e -> classes.addAll(e.getValue()));
+                }
+                files = classes;
+            }
+            else
+            {
+                files = super.list(location, packageName, kinds, recurse);
+            }
+
+            return files;
+        }
+
+        @Override
+        public String inferBinaryName(
+            Location location,
+            JavaFileObject file)
+        {
+            return file instanceof JarClassFileObject
+                    ? ((JarClassFileObject) file).binaryName
+                    : super.inferBinaryName(location, file);
+        }
+
+        @Override
+        public boolean contains(
+            Location location,
+            FileObject file) throws IOException
+        {
+            boolean contains;
+
+            if (file instanceof SourceFileObject)
+            {
+                contains = location == StandardLocation.SOURCE_PATH;
+            }
+            else if (file instanceof JarClassFileObject || file instanceof ClassOutputFileObject)
+            {
+                contains = location == StandardLocation.CLASS_OUTPUT;
+            }
+            else
+            {
+                contains = super.contains(location, file);
+            }
+
+            return contains;
+        }
+
+        @Override
+        public boolean isSameFile(
+            FileObject a,
+            FileObject b)
+        {
+            return a instanceof SimpleJavaFileObject || b instanceof SimpleJavaFileObject
+                    ? a.toUri().equals(b.toUri())
+                    : super.isSameFile(a, b);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForInput(
+            Location location,
+            String className,
+            Kind kind) throws IOException
+        {
+            JavaFileObject file = null;
+
+            if (location == StandardLocation.CLASS_OUTPUT)
+            {
+                if (kind == Kind.CLASS)
+                {
+                    int lastDot = className.lastIndexOf('.');
+                    String packageName = lastDot != -1 ? className.substring(0, lastDot) : "";
+                    file = packages.getOrDefault(packageName, emptyList()).stream()
+                            .filter(f -> ((JarClassFileObject) f).binaryName.equals(className))
+                            .findFirst()
+                            .orElse(null);
+                }
+            }
+            else
+            {
+                file = super.getJavaFileForInput(location, className, kind);
+            }
+
+            return file;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(
+            Location location,
+            String className,
+            Kind kind,
+            FileObject sibling) throws IOException
+        {
+            if (location != StandardLocation.CLASS_OUTPUT ||
+                kind != Kind.CLASS ||
+                !MODULE_INFO_NAME.equals(className))
+            {
+                throw new IOException(String.format("Unexpected output: %s", className));
+            }
+
+            compiled = new ByteArrayOutputStream();
+            return new ClassOutputFileObject(className, compiled);
+        }
+    }
+
+    private static final class SourceFileObject extends SimpleJavaFileObject
+    {
+        private final String contents;
+
+        private SourceFileObject(
+            String contents)
+        {
+            super(URI.create(String.format("string:///%s%s", MODULE_INFO_NAME, Kind.SOURCE.extension)), Kind.SOURCE);
+            this.contents = contents;
+        }
+
+        @Override
+        public CharSequence getCharContent(
+            boolean ignoreEncodingErrors)
+        {
+            return contents;
+        }
+    }
+
+    private static final class JarClassFileObject extends SimpleJavaFileObject
+    {
+        private final JarFile jar;
+        private final JarEntry entry;
+        private final String binaryName;
+
+        private JarClassFileObject(
+            JarFile jar,
+            JarEntry entry,
+            String binaryName)
+        {
+            super(URI.create(String.format("jar:///%s", entry.getName())), Kind.CLASS);
+            this.jar = jar;
+            this.entry = entry;
+            this.binaryName = binaryName;
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException
+        {
+            return jar.getInputStream(entry);
+        }
+
+        @Override
+        public long getLastModified()
+        {
+            return entry.getTime();
+        }
+    }
+
+    private static final class ClassOutputFileObject extends SimpleJavaFileObject
+    {
+        private final OutputStream output;
+
+        private ClassOutputFileObject(
+            String className,
+            OutputStream output)
+        {
+            super(URI.create(String.format("mem:///%s%s", className, Kind.CLASS.extension)), Kind.CLASS);
+            this.output = output;
+        }
+
+        @Override
+        public OutputStream openOutputStream()
+        {
+            return output;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.util.Objects;
+
+public final class RymModuleIndexEntry
+{
+    public long size;
+    public long modified;
+    public String name;
+    public boolean automatic;
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(size, modified, name, automatic);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymModuleIndexEntry))
+        {
+            return false;
+        }
+
+        RymModuleIndexEntry that = (RymModuleIndexEntry) obj;
+        return this.size == that.size &&
+                this.modified == that.modified &&
+                Objects.equals(this.name, that.name) &&
+                this.automatic == that.automatic;
+    }
+
+    public static RymModuleIndexEntry of(
+        long size,
+        long modified,
+        String name,
+        boolean automatic)
+    {
+        RymModuleIndexEntry entry = new RymModuleIndexEntry();
+        entry.size = size;
+        entry.modified = modified;
+        entry.name = name;
+        entry.automatic = automatic;
+        return entry;
+    }
+}
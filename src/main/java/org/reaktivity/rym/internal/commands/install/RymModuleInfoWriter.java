@@ -0,0 +1,226 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public final class RymModuleInfoWriter
+{
+    private static final int MAGIC = 0xcafebabe;
+    private static final int CLASS_VERSION_OFFSET = 44;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_MODULE = 19;
+
+    private static final int ACC_MODULE = 0x8000;
+    private static final int ACC_OPEN = 0x0020;
+    private static final int ACC_TRANSITIVE = 0x0020;
+    private static final int ACC_MANDATED = 0x8000;
+
+    private static final String JAVA_BASE = "java.base";
+
+    private final int majorVersion;
+    private final String javaBaseVersion;
+
+    public RymModuleInfoWriter()
+    {
+        this(Runtime.version().feature() + CLASS_VERSION_OFFSET,
+             ModuleLayer.boot().findModule(JAVA_BASE).get().getDescriptor().rawVersion().orElse(null));
+    }
+
+    RymModuleInfoWriter(
+        int majorVersion,
+        String javaBaseVersion)
+    {
+        this.majorVersion = majorVersion;
+        this.javaBaseVersion = javaBaseVersion;
+    }
+
+    public byte[] writeOpenDelegating(
+        String name,
+        String delegate)
+    {
+        ConstantPool constants = new ConstantPool();
+        int thisClass = constants.classInfo("module-info");
+        int sourceFileAttr = constants.utf8("SourceFile");
+        int sourceFile = constants.utf8("module-info.java");
+        int moduleAttr = constants.utf8("Module");
+        int module = constants.moduleInfo(name);
+        int javaBase = constants.moduleInfo(JAVA_BASE);
+        int javaBaseVersion = this.javaBaseVersion != null ? constants.utf8(this.javaBaseVersion) : 0;
+        int delegateModule = constants.moduleInfo(delegate);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(majorVersion);
+            constants.write(out);
+
+            out.writeShort(ACC_MODULE);
+            out.writeShort(thisClass);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+
+            out.writeShort(2);
+
+            out.writeShort(sourceFileAttr);
+            out.writeInt(2);
+            out.writeShort(sourceFile);
+
+            out.writeShort(moduleAttr);
+            out.writeInt(28);
+            out.writeShort(module);
+            out.writeShort(ACC_OPEN);
+            out.writeShort(0);
+            out.writeShort(2);
+            out.writeShort(javaBase);
+            out.writeShort(ACC_MANDATED);
+            out.writeShort(javaBaseVersion);
+            out.writeShort(delegateModule);
+            out.writeShort(ACC_TRANSITIVE);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+        catch (IOException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static final class ConstantPool
+    {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<Consumer<DataOutputStream>> entries = new ArrayList<>();
+
+        int utf8(
+            String value)
+        {
+            String key = String.format("%d:%s", CONSTANT_UTF8, value);
+            Integer index = indices.get(key);
+            if (index == null)
+            {
+                index = reserve(key);
+                entries.set(index - 1, out -> writeUtf8(out, value));
+            }
+            return index;
+        }
+
+        int classInfo(
+            String name)
+        {
+            return constant(CONSTANT_CLASS, name);
+        }
+
+        int moduleInfo(
+            String name)
+        {
+            return constant(CONSTANT_MODULE, name);
+        }
+
+        void write(
+            DataOutputStream out)
+        {
+            writeShort(out, entries.size() + 1);
+            entries.forEach(e -> e.accept(out));
+        }
+
+        private int constant(
+            int tag,
+            String name)
+        {
+            String key = String.format("%d:%s", tag, name);
+            Integer index = indices.get(key);
+            if (index == null)
+            {
+                index = reserve(key);
+                int nameIndex = utf8(name);
+                entries.set(index - 1, out -> writeConstant(out, tag, nameIndex));
+            }
+            return index;
+        }
+
+        private int reserve(
+            String key)
+        {
+            entries.add(null);
+            int index = entries.size();
+            indices.put(key, index);
+            return index;
+        }
+
+        private static void writeUtf8(
+            DataOutputStream out,
+            String value)
+        {
+            try
+            {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(value);
+            }
+            catch (IOException ex)
+            {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        private static void writeConstant(
+            DataOutputStream out,
+            int tag,
+            int nameIndex)
+        {
+            try
+            {
+                out.writeByte(tag);
+                out.writeShort(nameIndex);
+            }
+            catch (IOException ex)
+            {
+                throw new RuntimeException(ex);
+            }
+        }
+
+        private static void writeShort(
+            DataOutputStream out,
+            int value)
+        {
+            try
+            {
+                out.writeShort(value);
+            }
+            catch (IOException ex)
+            {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.reaktivity.rym.internal.commands.install;
 
+import java.util.List;
 import java.util.Objects;
 
 import javax.json.bind.annotation.JsonbTypeAdapter;
@@ -25,6 +26,9 @@ import org.reaktivity.rym.internal.commands.install.adapters.RymRepositoryAdapte
 public final class RymRepository
 {
     public String location;
+    public String releases;
+    public String snapshots;
+    public List<String> groups;
 
     public RymRepository()
     {
@@ -33,7 +37,7 @@ public final class RymRepository
     @Override
     public int hashCode()
     {
-        return Objects.hash(location);
+        return Objects.hash(location, releases, snapshots, groups);
     }
 
     @Override
@@ -51,7 +55,10 @@ public final class RymRepository
         }
 
         RymRepository that = (RymRepository) obj;
-        return Objects.equals(this.location, that.location);
+        return Objects.equals(this.location, that.location) &&
+                Objects.equals(this.releases, that.releases) &&
+                Objects.equals(this.snapshots, that.snapshots) &&
+                Objects.equals(this.groups, that.groups);
     }
 
     @Override
@@ -62,7 +69,27 @@ public final class RymRepository
 
     RymRepository(
         String location)
+    {
+        this(location, null, null);
+    }
+
+    RymRepository(
+        String location,
+        String releases,
+        String snapshots)
+    {
+        this(location, releases, snapshots, null);
+    }
+
+    RymRepository(
+        String location,
+        String releases,
+        String snapshots,
+        List<String> groups)
     {
         this.location = location;
+        this.releases = releases;
+        this.snapshots = snapshots;
+        this.groups = groups;
     }
 }
@@ -0,0 +1,458 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static org.reaktivity.rym.internal.settings.RymSecrets.decryptSecret;
+import static org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher.SYSTEM_PROPERTY_SEC_LOCATION;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.MessageLogger;
+import org.apache.ivy.util.url.CredentialsStore;
+import org.reaktivity.rym.internal.RymCommand;
+import org.reaktivity.rym.internal.commands.install.cache.RymArtifact;
+import org.reaktivity.rym.internal.commands.install.cache.RymCache;
+import org.reaktivity.rym.internal.commands.install.cache.RymChecksumPolicy;
+import org.reaktivity.rym.internal.commands.install.cache.RymRefreshPolicy;
+import org.reaktivity.rym.internal.commands.install.cache.RymResolver;
+import org.reaktivity.rym.internal.commands.install.cache.RymStore;
+import org.reaktivity.rym.internal.settings.RymCredentials;
+import org.reaktivity.rym.internal.settings.RymMirror;
+import org.reaktivity.rym.internal.settings.RymSecrets;
+import org.reaktivity.rym.internal.settings.RymSecurity;
+import org.reaktivity.rym.internal.settings.RymSettings;
+import org.reaktivity.rym.internal.types.RymDurationConverterProvider;
+import org.sonatype.plexus.components.cipher.PlexusCipherException;
+
+import com.github.rvesse.airline.annotations.Option;
+
+public abstract class RymResolveCommand extends RymCommand
+{
+    private static final Map<String, String> DEFAULT_REALMS = initDefaultRealms();
+
+    @Option(name = { "--exclude-local-repository" })
+    public boolean excludeLocalRepo;
+
+    @Option(name = { "--offline" },
+            description = "resolve only from the cache and local file repositories")
+    public boolean offline;
+
+    @Option(name = { "--download-threads" },
+            description = "maximum concurrent artifact downloads")
+    public int downloadThreads = 8;
+
+    @Option(name = { "--download-host-connections" },
+            description = "maximum concurrent artifact downloads per repository host")
+    public int downloadHostConnections = 4;
+
+    @Option(name = { "--shared-store" },
+            description = "share artifacts across projects via the settings directory")
+    public boolean sharedStore;
+
+    @Option(name = { "--resolution-ttl" },
+            description = "reuse cached dependency resolution for this long, such as 12h or 1d, or 0s to disable",
+            typeConverterProvider = RymDurationConverterProvider.class)
+    public Duration resolutionTTL = Duration.ofDays(1);
+
+    @Option(name = { "--miss-ttl" },
+            description = "skip repositories known not to host an artifact for this long, such as 12h or 1d, or 0s to disable",
+            typeConverterProvider = RymDurationConverterProvider.class)
+    public Duration missTTL = Duration.ofDays(1);
+
+    @Option(name = { "--checksum-policy" },
+            description = "when a downloaded file has no checksum or its checksum cannot be fetched: " +
+                          "fail, warn and lock it as unverified, or ignore checksums " +
+                          "(local file repositories are locked as unverified without a warning)")
+    public String checksumPolicy = "warn";
+
+    @Option(name = { "--refresh" },
+            description = "release metadata refresh policy: always, daily, interval:<duration> or never")
+    public String refresh;
+
+    @Option(name = { "--refresh-snapshots" },
+            description = "snapshot metadata refresh policy: always, daily, interval:<duration> or never")
+    public String refreshSnapshots;
+
+    protected MessageLogger logger;
+    protected RymInstallMetrics metrics;
+
+    protected void configure(
+        RymConfiguration config)
+    {
+    }
+
+    protected boolean shouldWriteLock()
+    {
+        return true;
+    }
+
+    protected Collection<RymArtifact> resolveArtifacts(
+        Path rymFile,
+        Path lockFile) throws IOException, PlexusCipherException
+    {
+        RymConfiguration config;
+
+        try (RymStageTimer stage = new RymStageTimer(metrics.stages, "config"))
+        {
+            logger.info(String.format("reading %s", rymFile));
+            config = readOrDefaultConfig(rymFile);
+            stage.count(config.dependencies != null ? config.dependencies.size() : 0);
+        }
+
+        try (RymStageTimer stage = new RymStageTimer(metrics.stages, "lock"))
+        {
+            logger.info(String.format("reading %s", lockFile));
+            config = overrideConfigIfLocked(config, rymFile, lockFile);
+            configure(config);
+            stage.count(config.artifacts != null ? config.artifacts.size() : 0);
+        }
+
+        RymSettings settings;
+        try (RymStageTimer stage = new RymStageTimer(metrics.stages, "settings"))
+        {
+            settings = readSettings(settingsDir);
+            stage.count(settings.mirrors != null ? settings.mirrors.size() : 0);
+        }
+
+        Collection<RymArtifact> artifacts = null;
+        List<RymLockedArtifact> locked = config.artifacts;
+        List<RymRepository> configured = refreshRepositories(config);
+        try (RymStageTimer stage = new RymStageTimer(metrics.stages, "resolve"))
+        {
+            logger.info("resolving dependencies");
+            createDirectories(cacheDir);
+            List<RymRepository> repositories = mirrorRepositories(configured, settings.mirrors);
+            if (!excludeLocalRepo)
+            {
+                String localRepo = String.format("file://%s/.m2/repository", System.getProperty("user.home"));
+                repositories.add(0, new RymRepository(localRepo));
+            }
+            RymStore store = sharedStore ? new RymStore(settingsDir.resolve("store")) : null;
+            RymCache cache = new RymCache(repositories, cacheDir, downloadThreads, downloadHostConnections,
+                    resolutionTTL, missTTL, offline, RymChecksumPolicy.of(checksumPolicy), store);
+            if (locked != null)
+            {
+                artifacts = cache.materialize(locked);
+            }
+            if (artifacts == null)
+            {
+                locked = new ArrayList<>();
+                artifacts = cache.resolve(config.imports, config.dependencies, locked);
+            }
+            else
+            {
+                logger.info("resolved dependencies from lock");
+            }
+            stage.count(artifacts.size());
+        }
+
+        locked = unmirrorArtifacts(locked, configured, settings.mirrors);
+        RymConfiguration resolved = lockConfig(config, artifacts, locked);
+
+        if (shouldWriteLock() && !resolved.equals(config))
+        {
+            logger.info(String.format("writing %s", lockFile));
+            writeLockFile(resolved, lockFile);
+        }
+
+        return artifacts;
+    }
+
+    private RymSettings readSettings(
+        Path settingsDir) throws IOException, PlexusCipherException
+    {
+        Path settingsFile = settingsDir.resolve("settings.json");
+
+        RymSettings settings = new RymSettings();
+        settings.credentials = emptyList();
+
+        Jsonb builder = JsonbBuilder.newBuilder()
+                .withConfig(new JsonbConfig().withFormatting(true))
+                .build();
+
+        if (Files.exists(settingsFile))
+        {
+            try (InputStream in = newInputStream(settingsFile))
+            {
+                settings = builder.fromJson(in, RymSettings.class);
+            }
+        }
+
+        if (settings.credentials != null && settings.credentials.size() > 0)
+        {
+            Path securityFile = settingsDir.resolve("security.json");
+
+            RymSecurity security = new RymSecurity();
+
+            if (Files.exists(securityFile))
+            {
+                try (InputStream in = newInputStream(securityFile))
+                {
+                    security = builder.fromJson(in, RymSecurity.class);
+                }
+            }
+
+            security.secret = decryptSecret(security.secret, SYSTEM_PROPERTY_SEC_LOCATION);
+
+            for (RymCredentials credentials : settings.credentials)
+            {
+                String realm = defaultRealmIfNecessary(credentials);
+                String host = credentials.host;
+                String username = credentials.username;
+                String password = RymSecrets.decryptSecret(credentials.password, security.secret);
+
+                CredentialsStore.INSTANCE.addCredentials(
+                    realm,
+                    host,
+                    username,
+                    password);
+            }
+        }
+
+        return settings;
+    }
+
+    private RymConfiguration lockConfig(
+        RymConfiguration config,
+        Collection<RymArtifact> artifacts,
+        List<RymLockedArtifact> locked)
+    {
+        Map<RymDependency, RymDependency> resolvables = artifacts.stream()
+                .map(a -> a.id)
+                .collect(
+                    toMap(
+                        id -> RymDependency.of(id.group, id.artifact, null),
+                        id -> RymDependency.of(id.group, id.artifact, id.version)));
+
+        RymConfiguration resolved = new RymConfiguration();
+        resolved.repositories = config.repositories;
+        resolved.imports = null;
+        resolved.dependencies = config.dependencies.stream()
+                .map(d -> ofNullable(resolvables.get(d)).orElse(d))
+                .collect(toList());
+        resolved.artifacts = locked;
+        resolved.image = config.image;
+        resolved.launcher = config.launcher;
+        resolved.refresh = config.refresh;
+        return resolved;
+    }
+
+    private List<RymRepository> refreshRepositories(
+        RymConfiguration config)
+    {
+        String defaultReleases = config.refresh != null ? config.refresh.releases : null;
+        String defaultSnapshots = config.refresh != null ? config.refresh.snapshots : null;
+
+        List<RymRepository> repositories = new ArrayList<>();
+        for (RymRepository repository : config.repositories)
+        {
+            String releases = ofNullable(refresh).or(() -> ofNullable(repository.releases)).orElse(defaultReleases);
+            String snapshots = ofNullable(refreshSnapshots).or(() -> ofNullable(repository.snapshots)).orElse(defaultSnapshots);
+            repositories.add(new RymRepository(repository.location, releases, snapshots, repository.groups));
+        }
+        return repositories;
+    }
+
+    static List<RymRepository> mirrorRepositories(
+        List<RymRepository> repositories,
+        List<RymMirror> mirrors)
+    {
+        Map<String, RymRepository> mirrored = new LinkedHashMap<>();
+        for (RymRepository repository : repositories)
+        {
+            String location = mirrorOf(repository.location, mirrors);
+
+            RymRepository existing = mirrored.get(location);
+            if (existing == null)
+            {
+                mirrored.put(location, new RymRepository(location, repository.releases, repository.snapshots, repository.groups));
+            }
+            else
+            {
+                existing.releases = mergeRefresh(location, "releases", existing.releases, repository.releases);
+                existing.snapshots = mergeRefresh(location, "snapshots", existing.snapshots, repository.snapshots);
+                if (existing.groups != null)
+                {
+                    List<String> groups = null;
+                    if (repository.groups != null)
+                    {
+                        groups = new ArrayList<>(existing.groups);
+                        groups.addAll(repository.groups);
+                    }
+                    existing.groups = groups;
+                }
+            }
+        }
+        return new ArrayList<>(mirrored.values());
+    }
+
+    static List<RymLockedArtifact> unmirrorArtifacts(
+        List<RymLockedArtifact> locked,
+        List<RymRepository> repositories,
+        List<RymMirror> mirrors)
+    {
+        List<RymLockedArtifact> unmirrored = new ArrayList<>();
+        for (RymLockedArtifact artifact : locked)
+        {
+            List<RymRepository> candidates = repositories.stream()
+                    .filter(r -> mirrorOf(r.location, mirrors).equals(artifact.repository))
+                    .collect(toList());
+            String group = artifact.id.groupId;
+            String repository = candidates.stream()
+                    .filter(r -> r.groups != null && r.groups.stream().anyMatch(g -> RymResolver.matches(g, group)))
+                    .findFirst()
+                    .or(() -> candidates.stream().filter(r -> r.groups == null).findFirst())
+                    .map(r -> r.location)
+                    .orElse(artifact.repository);
+
+            unmirrored.add(repository.equals(artifact.repository)
+                ? artifact
+                : RymLockedArtifact.of(artifact.id, artifact.depends, repository, artifact.path,
+                    artifact.sha256, artifact.verified));
+        }
+        return unmirrored;
+    }
+
+    private static String mirrorOf(
+        String location,
+        List<RymMirror> mirrors)
+    {
+        return ofNullable(mirrors).orElse(emptyList()).stream()
+                .filter(m -> m.matches(location))
+                .map(m -> m.location)
+                .findFirst()
+                .orElse(location);
+    }
+
+    private static String mergeRefresh(
+        String location,
+        String kind,
+        String existing,
+        String other)
+    {
+        String merged = existing;
+        RymRefreshPolicy existingPolicy = RymRefreshPolicy.of(ofNullable(existing).orElse(RymRefreshPolicy.DAILY.name));
+        RymRefreshPolicy otherPolicy = RymRefreshPolicy.of(ofNullable(other).orElse(RymRefreshPolicy.DAILY.name));
+        if (!existingPolicy.equals(otherPolicy))
+        {
+            Duration existingInterval = existingPolicy.interval;
+            Duration otherInterval = otherPolicy.interval;
+            RymRefreshPolicy mergedPolicy = existingPolicy;
+            if (otherInterval != null && (existingInterval == null || otherInterval.compareTo(existingInterval) < 0))
+            {
+                merged = other;
+                mergedPolicy = otherPolicy;
+            }
+            Message.warn(String.format("mirror %s serves repositories with %s refresh %s and %s, using %s",
+                    location, kind, existingPolicy.name, otherPolicy.name, mergedPolicy.name));
+        }
+        return merged;
+    }
+
+    private RymConfiguration readOrDefaultConfig(
+        Path rymFile) throws IOException
+    {
+        RymConfiguration config = new RymConfiguration();
+        config.repositories = emptyList();
+        config.imports = emptyList();
+        config.dependencies = emptyList();
+
+        Jsonb builder = JsonbBuilder.newBuilder()
+                .withConfig(new JsonbConfig().withFormatting(true))
+                .build();
+
+        if (Files.exists(rymFile))
+        {
+            try (InputStream in = newInputStream(rymFile))
+            {
+                config = builder.fromJson(in, RymConfiguration.class);
+            }
+        }
+
+        return config;
+    }
+
+    private RymConfiguration overrideConfigIfLocked(
+        RymConfiguration config,
+        Path rymFile,
+        Path lockFile) throws IOException
+    {
+        if (Files.exists(lockFile) &&
+            getLastModifiedTime(lockFile).compareTo(getLastModifiedTime(rymFile)) >= 0)
+        {
+            Jsonb builder = JsonbBuilder.newBuilder()
+                    .withConfig(new JsonbConfig().withFormatting(true))
+                    .build();
+
+            try (InputStream in = newInputStream(lockFile))
+            {
+                config = builder.fromJson(in, RymConfiguration.class);
+            }
+        }
+        return config;
+    }
+
+    private void writeLockFile(
+        RymConfiguration config,
+        Path lockFile) throws IOException
+    {
+        Jsonb builder = JsonbBuilder.newBuilder()
+                .withConfig(new JsonbConfig().withFormatting(true))
+                .build();
+
+        createDirectories(lockDir);
+        try (OutputStream out = newOutputStream(lockFile))
+        {
+            builder.toJson(config, out);
+        }
+    }
+
+    private String defaultRealmIfNecessary(
+        RymCredentials credentials)
+    {
+        return ofNullable(credentials.realm)
+            .orElse(DEFAULT_REALMS.get(credentials.host));
+    }
+
+    private static Map<String, String> initDefaultRealms()
+    {
+        return singletonMap("maven.pkg.github.com", "GitHub Package Registry");
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.reaktivity.rym.internal.commands.install.event.RymStageEvent;
+
+/**
+ * Measures one install stage: wall and process CPU time, and process I/O from {@code /proc/self/io}
+ * where available. Unavailable measurements are reported as {@code -1}.
+ */
+public final class RymStageTimer implements AutoCloseable
+{
+    private static final Path PROC_SELF_IO = Paths.get("/proc/self/io");
+
+    private final List<RymStageMetrics> stages;
+    private final RymStageMetrics metrics;
+    private final long wallStart;
+    private final long cpuStart;
+    private final long[] ioStart;
+    private final RymStageEvent event;
+
+    public RymStageTimer(
+        List<RymStageMetrics> stages,
+        String name)
+    {
+        this.stages = stages;
+        this.metrics = new RymStageMetrics();
+        this.metrics.name = name;
+        this.wallStart = System.nanoTime();
+        this.cpuStart = processCpuTime();
+        this.ioStart = processIo();
+        this.event = new RymStageEvent();
+        this.event.begin();
+    }
+
+    public RymStageTimer count(
+        long count)
+    {
+        metrics.count = count;
+        return this;
+    }
+
+    @Override
+    public void close()
+    {
+        long cpuEnd = processCpuTime();
+        long[] ioEnd = processIo();
+
+        metrics.wallMillis = NANOSECONDS.toMillis(System.nanoTime() - wallStart);
+        metrics.cpuMillis = cpuStart != -1L && cpuEnd != -1L ? NANOSECONDS.toMillis(cpuEnd - cpuStart) : -1L;
+        metrics.bytesRead = ioStart != null && ioEnd != null ? ioEnd[0] - ioStart[0] : -1L;
+        metrics.bytesWritten = ioStart != null && ioEnd != null ? ioEnd[1] - ioStart[1] : -1L;
+        stages.add(metrics);
+
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.stage = metrics.name;
+            event.count = metrics.count;
+            event.bytesRead = metrics.bytesRead;
+            event.bytesWritten = metrics.bytesWritten;
+            event.commit();
+        }
+    }
+
+    private static long processCpuTime()
+    {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os instanceof com.sun.management.OperatingSystemMXBean
+                ? ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime()
+                : -1L;
+    }
+
+    private static long[] processIo()
+    {
+        long[] io = null;
+
+        if (Files.isReadable(PROC_SELF_IO))
+        {
+            try
+            {
+                io = new long[2];
+                for (String line : Files.readAllLines(PROC_SELF_IO))
+                {
+                    if (line.startsWith("rchar:"))
+                    {
+                        io[0] = Long.parseLong(line.substring("rchar:".length()).trim());
+                    }
+                    else if (line.startsWith("wchar:"))
+                    {
+                        io[1] = Long.parseLong(line.substring("wchar:".length()).trim());
+                    }
+                }
+            }
+            catch (IOException | NumberFormatException ex)
+            {
+                io = null;
+            }
+        }
+
+        return io;
+    }
+}
@@ -15,27 +15,79 @@
  */
 package org.reaktivity.rym.internal.commands.install.adapters;
 
+import static java.util.stream.Collectors.toList;
+
 import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import javax.json.JsonString;
+import javax.json.JsonValue;
 import javax.json.bind.adapter.JsonbAdapter;
 
 import org.reaktivity.rym.internal.commands.install.RymRepository;
 
-public final class RymRepositoryAdapter implements JsonbAdapter<RymRepository, JsonString>
+public final class RymRepositoryAdapter implements JsonbAdapter<RymRepository, JsonValue>
 {
+    private static final String LOCATION_NAME = "location";
+    private static final String RELEASES_NAME = "releases";
+    private static final String SNAPSHOTS_NAME = "snapshots";
+    private static final String GROUPS_NAME = "groups";
+
     @Override
-    public JsonString adaptToJson(
+    public JsonValue adaptToJson(
         RymRepository repository)
     {
-        return Json.createValue(repository.location);
+        if (repository.releases == null &&
+            repository.snapshots == null &&
+            repository.groups == null)
+        {
+            return Json.createValue(repository.location);
+        }
+
+        JsonObjectBuilder object = Json.createObjectBuilder();
+        object.add(LOCATION_NAME, repository.location);
+        if (repository.releases != null)
+        {
+            object.add(RELEASES_NAME, repository.releases);
+        }
+        if (repository.snapshots != null)
+        {
+            object.add(SNAPSHOTS_NAME, repository.snapshots);
+        }
+        if (repository.groups != null)
+        {
+            JsonArrayBuilder groups = Json.createArrayBuilder();
+            repository.groups.forEach(groups::add);
+            object.add(GROUPS_NAME, groups);
+        }
+        return object.build();
     }
 
     @Override
     public RymRepository adaptFromJson(
-        JsonString location)
+        JsonValue value)
     {
         RymRepository repository = new RymRepository();
-        repository.location = location.getString();
+        if (value instanceof JsonString)
+        {
+            repository.location = ((JsonString) value).getString();
+        }
+        else
+        {
+            JsonObject object = value.asJsonObject();
+            repository.location = object.getString(LOCATION_NAME);
+            repository.releases = object.getString(RELEASES_NAME, null);
+            repository.snapshots = object.getString(SNAPSHOTS_NAME, null);
+            if (object.containsKey(GROUPS_NAME))
+            {
+                repository.groups = object.getJsonArray(GROUPS_NAME)
+                        .getValuesAs(JsonString.class)
+                        .stream()
+                        .map(JsonString::getString)
+                        .collect(toList());
+            }
+        }
         return repository;
     }
 }
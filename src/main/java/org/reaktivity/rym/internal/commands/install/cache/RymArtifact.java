@@ -26,22 +26,32 @@ public final class RymArtifact
     public final RymArtifactId id;
     public final Path path;
     public final Set<RymArtifactId> depends;
-
+    public final String repository;
 
     public RymArtifact(
         RymArtifactId id,
         Path path,
         Set<RymArtifactId> depends)
+    {
+        this(id, path, depends, null);
+    }
+
+    public RymArtifact(
+        RymArtifactId id,
+        Path path,
+        Set<RymArtifactId> depends,
+        String repository)
     {
         this.id = id;
         this.path = path;
         this.depends = unmodifiableSet(depends);
+        this.repository = repository;
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, path, depends);
+        return Objects.hash(id, path, depends, repository);
     }
 
     @Override
@@ -61,7 +71,8 @@ public final class RymArtifact
         RymArtifact that = (RymArtifact) obj;
         return Objects.equals(this.id, that.id) &&
                 Objects.equals(this.path, that.path) &&
-                Objects.equals(this.depends, that.depends);
+                Objects.equals(this.depends, that.depends) &&
+                Objects.equals(this.repository, that.repository);
     }
 
     @Override
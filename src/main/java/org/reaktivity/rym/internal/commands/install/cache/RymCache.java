@@ -15,20 +15,45 @@
  */
 package org.reaktivity.rym.internal.commands.install.cache;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
 import static org.apache.ivy.util.filter.FilterHelper.getArtifactTypeFilter;
+import static org.reaktivity.rym.internal.commands.install.cache.RymRefreshPolicy.DAILY;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
 import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.descriptor.Configuration;
 import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
@@ -37,37 +62,84 @@ import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
 import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.DownloadOptions;
 import org.apache.ivy.core.resolve.IvyNode;
 import org.apache.ivy.core.resolve.ResolveOptions;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.parser.m2.PomModuleDescriptorBuilder;
 import org.apache.ivy.plugins.resolver.ChainResolver;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.plugins.resolver.IBiblioResolver;
-import org.apache.ivy.plugins.resolver.RepositoryResolver;
+import org.apache.ivy.util.Message;
 import org.reaktivity.rym.internal.commands.install.RymDependency;
+import org.reaktivity.rym.internal.commands.install.RymFingerprint;
+import org.reaktivity.rym.internal.commands.install.RymLockedArtifact;
 import org.reaktivity.rym.internal.commands.install.RymRepository;
+import org.reaktivity.rym.internal.commands.install.event.RymDownloadEvent;
 
 public final class RymCache
 {
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
     private final Ivy ivy;
+    private final Path directory;
+    private final List<RymRepository> repositories;
+    private final Duration resolutionTTL;
+    private final Path refreshFile;
+    private final RymRefreshState refreshState;
+    private final List<RymResolver> resolvers;
+    private final long now;
+    private final boolean offline;
     private final ResolveOptions options;
+    private final int downloadThreads;
+    private final int hostConnections;
+    private final RymStore store;
+    private final RymDigests digests;
+    private final RymMisses misses;
+    private final RymChecksumPolicy checksumPolicy;
 
     public RymCache(
         List<RymRepository> repositories,
-        Path directory)
+        Path directory,
+        int downloadThreads,
+        int hostConnections,
+        Duration resolutionTTL,
+        Duration missTTL,
+        boolean offline,
+        RymChecksumPolicy checksumPolicy,
+        RymStore store)
     {
         ResolveOptions options = new ResolveOptions();
         options.setLog(ResolveOptions.LOG_DOWNLOAD_ONLY);
         options.setArtifactFilter(getArtifactTypeFilter(new String[]{"jar", "bundle"}));
         options.setConfs("master,runtime".split(","));
-        options.setRefresh(true);
+        options.setRefresh(false);
+        options.setDownload(false);
         options.setOutputReport(false);
         this.options = options;
+        this.directory = directory;
+        this.repositories = repositories;
+        this.resolutionTTL = resolutionTTL;
+        this.downloadThreads = Math.max(downloadThreads, 1);
+        this.hostConnections = Math.max(hostConnections, 1);
+        this.store = store;
+        this.digests = RymDigests.read(directory.resolve("digests.json"), directory);
+        this.refreshFile = directory.resolve("refresh.json");
+        this.refreshState = readRefreshState(refreshFile);
+        this.now = System.currentTimeMillis();
+        this.misses = RymMisses.read(directory.resolve("misses.json"), missTTL, now);
+        this.offline = offline;
+        this.checksumPolicy = checksumPolicy;
+        this.resolvers = repositories.stream().map(this::newResolver).collect(toList());
+
+        RymURLHandler.install();
 
         ChainResolver chain = new ChainResolver();
         chain.setName("default");
-        repositories.stream().map(this::newResolver).forEach(chain::add);
+        resolvers.forEach(chain::add);
 
         IvySettings ivySettings = new IvySettings();
         ivySettings.setDefaultCache(directory.toFile());
@@ -79,12 +151,210 @@ public final class RymCache
 
     public List<RymArtifact> resolve(
         List<RymDependency> imports,
-        List<RymDependency> dependencies)
+        List<RymDependency> dependencies,
+        List<RymLockedArtifact> locked)
     {
+        Path resolutionFile = directory
+                .resolve("resolutions")
+                .resolve(String.format("%s.json", resolutionKey(imports, dependencies)));
+
+        try
+        {
+            List<RymLockedArtifact> resolved =
+                    isChanging(imports) || isChanging(dependencies) ? null : readResolution(resolutionFile);
+            List<RymArtifact> artifacts = resolved != null ? materialize(resolved) : null;
+            if (artifacts != null)
+            {
+                Message.verbose(String.format("\tresolved from %s", resolutionFile));
+                locked.addAll(resolved);
+                return artifacts;
+            }
+        }
+        catch (IOException ex)
+        {
+            Message.verbose(String.format("\tignoring %s: %s", resolutionFile, ex.getMessage()));
+        }
+
         Map<RymDependency, String> imported = resolveImports(imports);
         ModuleDescriptor resolvable = createResolvableDescriptor(imported, dependencies);
+        List<RymArtifact> artifacts = resolveDependencyArtifacts(resolvable);
 
-        return resolveDependencyArtifacts(resolvable);
+        try
+        {
+            if (store != null)
+            {
+                for (RymArtifact artifact : artifacts)
+                {
+                    store.publish(artifact.path);
+                }
+            }
+
+            writeRefreshState();
+            misses.write();
+
+            locked.addAll(lock(artifacts));
+
+            if (artifacts.stream().noneMatch(a -> isChanging(a.id.version)))
+            {
+                writeResolution(resolutionFile, locked);
+            }
+        }
+        catch (IOException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+
+        return artifacts;
+    }
+
+    private List<RymLockedArtifact> lock(
+        Collection<RymArtifact> artifacts) throws IOException
+    {
+        List<RymLockedArtifact> locked = new ArrayList<>();
+        Path cacheRoot = directory.toAbsolutePath();
+        for (RymArtifact artifact : artifacts)
+        {
+            RymDependency id = RymDependency.of(artifact.id.group, artifact.id.artifact, artifact.id.version);
+            List<RymDependency> depends = artifact.depends.stream()
+                    .map(d -> RymDependency.of(d.group, d.artifact, d.version))
+                    .collect(toList());
+            Path artifactPath = artifact.path.toAbsolutePath();
+            String path = artifactPath.startsWith(cacheRoot) ? cacheRoot.relativize(artifactPath).toString() : null;
+            RymDigest digest = digests.digest(artifact.path);
+
+            locked.add(RymLockedArtifact.of(id, depends, artifact.repository, path, digest.sha256, digest.verified));
+        }
+        digests.write();
+        return locked;
+    }
+
+    public List<RymArtifact> materialize(
+        List<RymLockedArtifact> locked) throws IOException
+    {
+        List<RymArtifact> artifacts = new LinkedList<>();
+
+        for (RymLockedArtifact lock : locked)
+        {
+            Path path = lock.path != null ? directory.resolve(lock.path) : null;
+            if (path != null &&
+                lock.sha256 != null &&
+                store != null &&
+                !Files.exists(path) &&
+                store.link(lock.sha256, path))
+            {
+                digests.verified(path, lock.sha256, lock.verified);
+            }
+
+            if (path == null ||
+                lock.sha256 == null ||
+                !Files.exists(path) ||
+                !lock.sha256.equals(digests.sha256(path)))
+            {
+                Message.verbose(String.format("\tlocked artifact not cached: %s", lock.id));
+                artifacts = null;
+                break;
+            }
+
+            if (store != null)
+            {
+                store.publish(path, lock.sha256);
+            }
+            digests.verified(path, lock.sha256, lock.verified);
+
+            RymArtifactId id = newArtifactId(lock.id);
+            Set<RymArtifactId> depends = new LinkedHashSet<>();
+            lock.depends.stream().map(this::newArtifactId).forEach(depends::add);
+            artifacts.add(new RymArtifact(id, path, depends, lock.repository));
+        }
+
+        digests.write();
+
+        return artifacts;
+    }
+
+    private String resolutionKey(
+        List<RymDependency> imports,
+        List<RymDependency> dependencies)
+    {
+        RymFingerprint fingerprint = new RymFingerprint();
+        fingerprint.update("imports");
+        for (RymDependency dependency : ofNullable(imports).orElse(emptyList()))
+        {
+            fingerprint.update(dependency.groupId).update(dependency.artifactId).update(dependency.version);
+        }
+        fingerprint.update("dependencies");
+        for (RymDependency dependency : dependencies)
+        {
+            fingerprint.update(dependency.groupId).update(dependency.artifactId).update(dependency.version);
+        }
+        fingerprint.update("repositories");
+        for (RymRepository repository : repositories)
+        {
+            fingerprint.update(repository.location).update(repository.groups);
+        }
+        return fingerprint.digest();
+    }
+
+    private boolean isChanging(
+        List<RymDependency> dependencies)
+    {
+        return dependencies != null && dependencies.stream().anyMatch(d -> isChanging(d.version));
+    }
+
+    private boolean isChanging(
+        String version)
+    {
+        return version != null &&
+            (version.endsWith(SNAPSHOT_SUFFIX) ||
+             ivy.getSettings().getVersionMatcher().isDynamic(ModuleRevisionId.newInstance("", "", version)));
+    }
+
+    private List<RymLockedArtifact> readResolution(
+        Path resolutionFile)
+    {
+        List<RymLockedArtifact> locked = null;
+
+        if (!resolutionTTL.isZero() && Files.exists(resolutionFile))
+        {
+            Jsonb builder = JsonbBuilder.create();
+            try (InputStream in = Files.newInputStream(resolutionFile))
+            {
+                RymResolution resolution = builder.fromJson(in, RymResolution.class);
+                long expires = resolution.resolved + resolutionTTL.toMillis();
+                if (resolution.artifacts != null && System.currentTimeMillis() < expires)
+                {
+                    locked = resolution.artifacts;
+                }
+            }
+            catch (Exception ex)
+            {
+                Message.verbose(String.format("\tignoring %s: %s", resolutionFile, ex.getMessage()));
+            }
+        }
+
+        return locked;
+    }
+
+    private void writeResolution(
+        Path resolutionFile,
+        List<RymLockedArtifact> locked) throws IOException
+    {
+        if (!resolutionTTL.isZero())
+        {
+            RymResolution resolution = new RymResolution();
+            resolution.resolved = System.currentTimeMillis();
+            resolution.artifacts = locked;
+
+            Files.createDirectories(resolutionFile.getParent());
+            String resolutionPartName = String.format("%s.%d.part", resolutionFile.getFileName(), ProcessHandle.current().pid());
+            Path resolutionPart = resolutionFile.resolveSibling(resolutionPartName);
+            Jsonb builder = JsonbBuilder.create();
+            try (OutputStream out = Files.newOutputStream(resolutionPart))
+            {
+                builder.toJson(resolution, out);
+            }
+            Files.move(resolutionPart, resolutionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
     }
 
     private Map<RymDependency, String> resolveImports(
@@ -151,7 +421,7 @@ public final class RymCache
             ResolveReport report = ivy.resolve(moduleDescriptor, options);
             if (report.hasError())
             {
-                throw new Exception("Unable to resolve: " + report);
+                throw new Exception(unresolved(report));
             }
 
             for (IvyNode node : report.getDependencies())
@@ -178,10 +448,13 @@ public final class RymCache
         List<RymArtifact> artifacts = new LinkedList<>();
         try
         {
+            // descriptors are fetched serially while ivy walks the graph, each parent and import must be
+            // parsed before its dependencies are known, so only the artifact downloads below run concurrently
             ResolveReport report = ivy.resolve(moduleDescriptor, options);
+            downloadArtifacts(report);
             if (report.hasError())
             {
-                throw new Exception("Unable to resolve: " + report);
+                throw new Exception(unresolved(report));
             }
 
             for (IvyNode node : report.getDependencies())
@@ -213,7 +486,8 @@ public final class RymCache
 
                 RymArtifactId id = newArtifactId(resolveId);
                 Path local = downloads[0].getLocalFile().toPath();
-                RymArtifact artifact = new RymArtifact(id, local, depends);
+                String repository = node.getModuleRevision().getArtifactResolver().getName();
+                RymArtifact artifact = new RymArtifact(id, local, depends, repository);
                 artifacts.add(artifact);
             }
         }
@@ -225,6 +499,171 @@ public final class RymCache
         return artifacts;
     }
 
+    private void downloadArtifacts(
+        ResolveReport report) throws InterruptedException
+    {
+        long start = System.currentTimeMillis();
+
+        DownloadOptions downloadOptions = new DownloadOptions();
+        downloadOptions.setLog(options.getLog());
+
+        Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+        Map<IvyNode, Future<DownloadReport>> downloads = new LinkedHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(downloadThreads);
+        try
+        {
+            for (IvyNode dependency : report.getDependencies())
+            {
+                if (!dependency.isCompletelyEvicted() &&
+                    !dependency.hasProblem() &&
+                    dependency.getModuleRevision() != null)
+                {
+                    DependencyResolver resolver = dependency.getModuleRevision().getArtifactResolver();
+                    Artifact[] selected = dependency.getSelectedArtifacts(options.getArtifactFilter());
+                    Semaphore permits = hostPermits.computeIfAbsent(hostOf(resolver), h -> new Semaphore(hostConnections));
+
+                    Future<DownloadReport> download = executor.submit(() ->
+                    {
+                        ivy.pushContext();
+                        try
+                        {
+                            permits.acquire();
+                            try
+                            {
+                                return downloadArtifacts(resolver, dependency, selected, downloadOptions);
+                            }
+                            finally
+                            {
+                                permits.release();
+                            }
+                        }
+                        finally
+                        {
+                            ivy.popContext();
+                        }
+                    });
+                    downloads.put(dependency, download);
+                }
+            }
+
+            long totalSize = 0L;
+            for (Map.Entry<IvyNode, Future<DownloadReport>> entry : downloads.entrySet())
+            {
+                IvyNode dependency = entry.getKey();
+                DownloadReport download = entry.getValue().get();
+                DependencyResolver resolver = dependency.getModuleRevision().getArtifactResolver();
+
+                for (ArtifactDownloadReport adr : download.getArtifactsReports())
+                {
+                    if (adr.getDownloadStatus() == DownloadStatus.FAILED)
+                    {
+                        Message.warn(String.format("\t%s", adr));
+                        resolver.reportFailure(adr.getArtifact());
+                    }
+                    else if (adr.getDownloadStatus() == DownloadStatus.SUCCESSFUL)
+                    {
+                        totalSize += adr.getSize();
+                    }
+                }
+
+                for (String conf : dependency.getRootModuleConfigurations())
+                {
+                    if (dependency.isEvicted(conf) || dependency.isBlacklisted(conf))
+                    {
+                        report.getConfigurationReport(conf).addDependency(dependency);
+                    }
+                    else
+                    {
+                        report.getConfigurationReport(conf).addDependency(dependency, download);
+                    }
+                }
+            }
+
+            report.setDownloadTime(System.currentTimeMillis() - start);
+            report.setDownloadSize(totalSize);
+        }
+        catch (ExecutionException ex)
+        {
+            throw new RuntimeException(ex.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DownloadReport downloadArtifacts(
+        DependencyResolver resolver,
+        IvyNode dependency,
+        Artifact[] selected,
+        DownloadOptions downloadOptions)
+    {
+        RymDownloadEvent event = new RymDownloadEvent();
+        event.begin();
+        DownloadReport downloaded = null;
+        try
+        {
+            downloaded = resolver.download(selected, downloadOptions);
+            return downloaded;
+        }
+        finally
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.artifact = dependency.getId().toString();
+                event.repository = resolver.getName();
+                event.status = downloaded != null
+                        ? Arrays.stream(downloaded.getArtifactsReports())
+                            .map(r -> r.getDownloadStatus().toString())
+                            .distinct()
+                            .collect(Collectors.joining(","))
+                        : DownloadStatus.FAILED.toString();
+                event.bytes = downloaded != null
+                        ? Arrays.stream(downloaded.getArtifactsReports())
+                            .mapToLong(ArtifactDownloadReport::getSize)
+                            .sum()
+                        : 0L;
+                event.commit();
+            }
+        }
+    }
+
+    private String unresolved(
+        ResolveReport report)
+    {
+        Set<String> missing = new LinkedHashSet<>();
+        for (IvyNode node : report.getUnresolvedDependencies())
+        {
+            missing.add(node.getId().toString());
+        }
+        for (ArtifactDownloadReport download : report.getFailedArtifactsReports())
+        {
+            missing.add(download.getArtifact().getModuleRevisionId().toString());
+        }
+
+        return String.format("Unable to resolve%s: %s", offline ? " offline" : "", String.join(", ", missing));
+    }
+
+    private String hostOf(
+        DependencyResolver resolver)
+    {
+        String host = "";
+        if (resolver instanceof IBiblioResolver)
+        {
+            String root = ((IBiblioResolver) resolver).getRoot();
+            host = ofNullable(locationOf(root).getHost()).orElse(host);
+        }
+        return host;
+    }
+
+    private RymArtifactId newArtifactId(
+        RymDependency dependency)
+    {
+        return new RymArtifactId(dependency.groupId, dependency.artifactId, dependency.version);
+    }
+
     private RymArtifactId newArtifactId(
         ModuleRevisionId resolveId)
     {
@@ -235,17 +674,130 @@ public final class RymCache
         return new RymArtifactId(groupId, artifactId, version);
     }
 
-    private RepositoryResolver newResolver(
+    private RymResolver newResolver(
         RymRepository repository)
     {
-        String name = "maven"; // TODO
+        String name = repository.location;
         String root = repository.location;
 
-        IBiblioResolver resolver = new IBiblioResolver();
+        RymRefreshPolicy releases = RymRefreshPolicy.of(ofNullable(repository.releases).orElse(DAILY.name));
+        RymRefreshPolicy snapshots = RymRefreshPolicy.of(ofNullable(repository.snapshots).orElse(DAILY.name));
+
+        boolean remote = isRemote(root);
+
+        RymResolver resolver = new RymResolver();
         resolver.setName(name);
         resolver.setRoot(root);
         resolver.setM2compatible(true);
+        resolver.setDigests(digests);
+        resolver.setChecksumPolicy(checksumPolicy);
+        resolver.setGroups(repository.groups);
+        if (repository.groups == null && remote)
+        {
+            resolver.setExcludedGroups(repositories.stream()
+                .filter(r -> r.groups != null)
+                .flatMap(r -> r.groups.stream())
+                .collect(toList()));
+        }
+        if (remote)
+        {
+            resolver.setMisses(misses);
+        }
+        resolver.setOffline(offline && remote);
+        resolver.setRefresh(!resolver.isOffline() &&
+            releases.isDue(refreshState.releases.getOrDefault(name, 0L), now));
+        resolver.setRefreshSnapshots(!resolver.isOffline() &&
+            snapshots.isDue(refreshState.snapshots.getOrDefault(name, 0L), now));
 
         return resolver;
     }
+
+    static boolean isRemote(
+        String location)
+    {
+        String scheme = locationOf(location).getScheme();
+        return scheme != null && !"file".equalsIgnoreCase(scheme);
+    }
+
+    private static URI locationOf(
+        String location)
+    {
+        try
+        {
+            return new URI(location);
+        }
+        catch (URISyntaxException ex)
+        {
+            throw new IllegalArgumentException(String.format("Invalid repository location: %s", location), ex);
+        }
+    }
+
+    private RymRefreshState readRefreshState(
+        Path refreshFile)
+    {
+        RymRefreshState state = null;
+
+        if (Files.exists(refreshFile))
+        {
+            Jsonb builder = JsonbBuilder.create();
+            try (InputStream in = Files.newInputStream(refreshFile))
+            {
+                state = builder.fromJson(in, RymRefreshState.class);
+            }
+            catch (Exception ex)
+            {
+                Message.verbose(String.format("\tignoring %s: %s", refreshFile, ex.getMessage()));
+            }
+        }
+
+        if (state == null)
+        {
+            state = new RymRefreshState();
+        }
+
+        if (state.releases == null)
+        {
+            state.releases = new TreeMap<>();
+        }
+
+        if (state.snapshots == null)
+        {
+            state.snapshots = new TreeMap<>();
+        }
+
+        return state;
+    }
+
+    private void writeRefreshState() throws IOException
+    {
+        boolean refreshed = false;
+        for (RymResolver resolver : resolvers)
+        {
+            String name = resolver.getName();
+            if (resolver.isRefresh())
+            {
+                refreshState.releases.put(name, now);
+                refreshed = true;
+            }
+
+            if (resolver.isRefreshSnapshots())
+            {
+                refreshState.snapshots.put(name, now);
+                refreshed = true;
+            }
+        }
+
+        if (refreshed)
+        {
+            Files.createDirectories(refreshFile.getParent());
+            String refreshPartName = String.format("%s.%d.part", refreshFile.getFileName(), ProcessHandle.current().pid());
+            Path refreshPart = refreshFile.resolveSibling(refreshPartName);
+            Jsonb builder = JsonbBuilder.create();
+            try (OutputStream out = Files.newOutputStream(refreshPart))
+            {
+                builder.toJson(refreshState, out);
+            }
+            Files.move(refreshPart, refreshFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
 }
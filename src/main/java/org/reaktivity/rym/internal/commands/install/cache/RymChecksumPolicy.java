@@ -0,0 +1,47 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static java.util.stream.Collectors.joining;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Decides what happens to a downloaded file whose checksum sidecar is missing or cannot be fetched.
+ * A checksum that does not match always fails the download, unless checksums are ignored.
+ */
+public enum RymChecksumPolicy
+{
+    FAIL,
+    WARN,
+    IGNORE;
+
+    public static RymChecksumPolicy of(
+        String name)
+    {
+        for (RymChecksumPolicy policy : values())
+        {
+            if (policy.name().equalsIgnoreCase(name))
+            {
+                return policy;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("unknown checksum policy %s, expected one of %s", name,
+            Arrays.stream(values()).map(p -> p.name().toLowerCase(Locale.ROOT)).collect(joining(", "))));
+    }
+}
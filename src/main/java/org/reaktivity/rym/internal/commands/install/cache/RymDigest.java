@@ -0,0 +1,75 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import java.util.Objects;
+
+public final class RymDigest
+{
+    public String sha256;
+    public long size;
+    public long modified;
+    public String verified;
+
+    public static RymDigest of(
+        String sha256,
+        long size,
+        long modified)
+    {
+        return of(sha256, size, modified, null);
+    }
+
+    public static RymDigest of(
+        String sha256,
+        long size,
+        long modified,
+        String verified)
+    {
+        RymDigest digest = new RymDigest();
+        digest.sha256 = sha256;
+        digest.size = size;
+        digest.modified = modified;
+        digest.verified = verified;
+        return digest;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(sha256, size, modified, verified);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymDigest))
+        {
+            return false;
+        }
+
+        RymDigest that = (RymDigest) obj;
+        return Objects.equals(this.sha256, that.sha256) &&
+                this.size == that.size &&
+                this.modified == that.modified &&
+                Objects.equals(this.verified, that.verified);
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.apache.ivy.util.Message;
+import org.reaktivity.rym.internal.commands.install.RymFingerprint;
+
+/**
+ * Records the sha256 of cached files once verified, keyed by path and trusted while size and modification time match.
+ * Each entry also names the repository checksum that verified the download, or none when it was not verified.
+ */
+public final class RymDigests
+{
+    private static final Type DIGESTS_TYPE = new TreeMap<String, RymDigest>()
+    {
+        private static final long serialVersionUID = 1L;
+    }.getClass().getGenericSuperclass();
+
+    private final Path file;
+    private final Path directory;
+    private final Map<String, RymDigest> digests;
+
+    private volatile boolean modified;
+
+    private RymDigests(
+        Path file,
+        Path directory,
+        Map<String, RymDigest> digests)
+    {
+        this.file = file;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.digests = new ConcurrentHashMap<>(digests);
+    }
+
+    public static RymDigests read(
+        Path file,
+        Path directory)
+    {
+        Map<String, RymDigest> digests = null;
+
+        if (Files.exists(file))
+        {
+            Jsonb builder = JsonbBuilder.create();
+            try (InputStream in = Files.newInputStream(file))
+            {
+                digests = builder.fromJson(in, DIGESTS_TYPE);
+            }
+            catch (Exception ex)
+            {
+                Message.verbose(String.format("\tignoring %s: %s", file, ex.getMessage()));
+            }
+        }
+
+        return new RymDigests(file, directory, digests != null ? digests : Map.of());
+    }
+
+    public String sha256(
+        Path path) throws IOException
+    {
+        return digest(path).sha256;
+    }
+
+    public RymDigest digest(
+        Path path) throws IOException
+    {
+        String key = keyOf(path);
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+
+        RymDigest digest = digests.get(key);
+        if (digest == null ||
+            digest.size != size ||
+            digest.modified != modified)
+        {
+            digest = RymDigest.of(RymFingerprint.sha256(path), size, modified);
+            digests.put(key, digest);
+            this.modified = true;
+        }
+
+        return digest;
+    }
+
+    public void verified(
+        Path path,
+        String sha256,
+        String verified) throws IOException
+    {
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        verified(path, RymDigest.of(sha256, size, modified, verified));
+    }
+
+    public void verified(
+        Path path,
+        RymDigest digest)
+    {
+        if (!digest.equals(digests.put(keyOf(path), digest)))
+        {
+            this.modified = true;
+        }
+    }
+
+    public void write() throws IOException
+    {
+        if (modified)
+        {
+            Files.createDirectories(file.getParent());
+            String digestsPartName = String.format("%s.%d.part", file.getFileName(), ProcessHandle.current().pid());
+            Path digestsPart = file.resolveSibling(digestsPartName);
+            Jsonb builder = JsonbBuilder.create();
+            try (OutputStream out = Files.newOutputStream(digestsPart))
+            {
+                builder.toJson(new TreeMap<>(digests), DIGESTS_TYPE, out);
+            }
+            Files.move(digestsPart, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            modified = false;
+        }
+    }
+
+    private String keyOf(
+        Path path)
+    {
+        Path absolute = path.toAbsolutePath().normalize();
+        return absolute.startsWith(directory) ? directory.relativize(absolute).toString() : absolute.toString();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.apache.ivy.util.Message;
+
+/**
+ * Records lookups that were not found in a repository, so they are skipped until the miss expires.
+ */
+public final class RymMisses
+{
+    private static final Type MISSES_TYPE = new TreeMap<String, Map<String, Long>>()
+    {
+        private static final long serialVersionUID = 1L;
+    }.getClass().getGenericSuperclass();
+
+    private final Path file;
+    private final Duration ttl;
+    private final long now;
+    private final Map<String, Map<String, Long>> misses;
+
+    private volatile boolean modified;
+
+    private RymMisses(
+        Path file,
+        Duration ttl,
+        long now,
+        Map<String, Map<String, Long>> misses)
+    {
+        this.file = file;
+        this.ttl = ttl;
+        this.now = now;
+        this.misses = new ConcurrentHashMap<>();
+        misses.forEach((r, m) -> this.misses.put(r, new ConcurrentHashMap<>(m)));
+    }
+
+    public static RymMisses read(
+        Path file,
+        Duration ttl,
+        long now)
+    {
+        Map<String, Map<String, Long>> misses = null;
+
+        if (!ttl.isZero() && Files.exists(file))
+        {
+            Jsonb builder = JsonbBuilder.create();
+            try (InputStream in = Files.newInputStream(file))
+            {
+                misses = builder.fromJson(in, MISSES_TYPE);
+            }
+            catch (Exception ex)
+            {
+                Message.verbose(String.format("\tignoring %s: %s", file, ex.getMessage()));
+            }
+        }
+
+        return new RymMisses(file, ttl, now, misses != null ? misses : Map.of());
+    }
+
+    public boolean isMissing(
+        String repository,
+        String lookup)
+    {
+        Long missed = misses.getOrDefault(repository, Map.of()).get(lookup);
+        return missed != null && now < missed + ttl.toMillis();
+    }
+
+    public void missed(
+        String repository,
+        String lookup)
+    {
+        if (!ttl.isZero())
+        {
+            misses.computeIfAbsent(repository, r -> new ConcurrentHashMap<>()).put(lookup, now);
+            modified = true;
+        }
+    }
+
+    public void found(
+        String repository,
+        String lookup)
+    {
+        Map<String, Long> missed = misses.get(repository);
+        if (missed != null && missed.remove(lookup) != null)
+        {
+            modified = true;
+        }
+    }
+
+    public void write() throws IOException
+    {
+        if (modified)
+        {
+            Map<String, Map<String, Long>> unexpired = new TreeMap<>();
+            misses.forEach((r, m) ->
+            {
+                Map<String, Long> entries = new TreeMap<>();
+                m.forEach((l, t) ->
+                {
+                    if (now < t + ttl.toMillis())
+                    {
+                        entries.put(l, t);
+                    }
+                });
+                if (!entries.isEmpty())
+                {
+                    unexpired.put(r, entries);
+                }
+            });
+
+            Files.createDirectories(file.getParent());
+            String missesPartName = String.format("%s.%d.part", file.getFileName(), ProcessHandle.current().pid());
+            Path missesPart = file.resolveSibling(missesPartName);
+            Jsonb builder = JsonbBuilder.create();
+            try (OutputStream out = Files.newOutputStream(missesPart))
+            {
+                builder.toJson(unexpired, MISSES_TYPE, out);
+            }
+            Files.move(missesPart, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            modified = false;
+        }
+    }
+}
@@ -62,8 +62,16 @@ public final class RymModule
         ModuleDescriptor descriptor,
         RymArtifact artifact)
     {
-        this.name = descriptor.name();
-        this.automatic = descriptor.isAutomatic();
+        this(descriptor.name(), descriptor.isAutomatic(), artifact);
+    }
+
+    public RymModule(
+        String name,
+        boolean automatic,
+        RymArtifact artifact)
+    {
+        this.name = name;
+        this.automatic = automatic;
         this.paths = new LinkedHashSet<>(singleton(artifact.path));
         this.id = artifact.id;
         this.depends = artifact.depends;
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.reaktivity.rym.internal.types.RymDuration;
+
+public final class RymRefreshPolicy
+{
+    public static final RymRefreshPolicy ALWAYS = new RymRefreshPolicy("always", Duration.ZERO);
+    public static final RymRefreshPolicy DAILY = new RymRefreshPolicy("daily", Duration.ofDays(1));
+    public static final RymRefreshPolicy NEVER = new RymRefreshPolicy("never", null);
+
+    private static final String INTERVAL_PREFIX = "interval:";
+
+    public final String name;
+    public final Duration interval;
+
+    public boolean isDue(
+        long lastChecked,
+        long now)
+    {
+        return interval != null && (lastChecked == 0L || now - lastChecked >= interval.toMillis());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(name, interval);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymRefreshPolicy))
+        {
+            return false;
+        }
+
+        RymRefreshPolicy that = (RymRefreshPolicy) obj;
+        return Objects.equals(this.name, that.name) &&
+                Objects.equals(this.interval, that.interval);
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+    public static RymRefreshPolicy of(
+        String name)
+    {
+        String policy = name.toLowerCase(Locale.ROOT);
+        switch (policy)
+        {
+        case "always":
+            return ALWAYS;
+        case "daily":
+            return DAILY;
+        case "never":
+            return NEVER;
+        default:
+            if (!policy.startsWith(INTERVAL_PREFIX))
+            {
+                throw new IllegalArgumentException(String.format("unknown refresh policy: %s", name));
+            }
+            Duration interval = RymDuration.parse(name.substring(INTERVAL_PREFIX.length()));
+            return new RymRefreshPolicy(policy, interval);
+        }
+    }
+
+    private RymRefreshPolicy(
+        String name,
+        Duration interval)
+    {
+        this.name = name;
+        this.interval = interval;
+    }
+}
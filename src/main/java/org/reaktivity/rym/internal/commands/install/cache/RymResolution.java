@@ -0,0 +1,52 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.reaktivity.rym.internal.commands.install.RymLockedArtifact;
+
+public final class RymResolution
+{
+    public long resolved;
+    public List<RymLockedArtifact> artifacts;
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(resolved, artifacts);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymResolution))
+        {
+            return false;
+        }
+
+        RymResolution that = (RymResolution) obj;
+        return this.resolved == that.resolved &&
+                Objects.equals(this.artifacts, that.artifacts);
+    }
+}
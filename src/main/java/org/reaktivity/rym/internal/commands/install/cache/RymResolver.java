@@ -0,0 +1,411 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ivy.core.cache.CacheMetadataOptions;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolveData;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.repository.Resource;
+import org.apache.ivy.plugins.resolver.IBiblioResolver;
+import org.apache.ivy.plugins.resolver.util.ResolvedResource;
+import org.apache.ivy.util.Message;
+import org.reaktivity.rym.internal.commands.install.RymFingerprint;
+
+public final class RymResolver extends IBiblioResolver
+{
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+    private static final String SNAPSHOT_PATTERN = ".*" + SNAPSHOT_SUFFIX;
+    private static final String PART_SUFFIX = ".part";
+    private static final String[][] CHECKSUMS =
+    {
+        { "sha256", "SHA-256" },
+        { "sha1", "SHA-1" }
+    };
+    private static final ExecutorService CHECKSUM_EXECUTOR = Executors.newCachedThreadPool(r ->
+    {
+        Thread thread = new Thread(r, "rym-checksum");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private boolean refresh;
+    private boolean refreshSnapshots;
+    private boolean offline;
+    private RymDigests digests;
+    private List<String> groups;
+    private List<String> excludedGroups;
+    private RymMisses misses;
+    private RymChecksumPolicy checksumPolicy = RymChecksumPolicy.WARN;
+    private volatile String checksum;
+    private final Set<ModuleRevisionId> unavailable = ConcurrentHashMap.newKeySet();
+
+    public RymResolver()
+    {
+        setChecksums("none");
+    }
+
+    public void setRefresh(
+        boolean refresh)
+    {
+        this.refresh = refresh;
+    }
+
+    public boolean isRefresh()
+    {
+        return refresh;
+    }
+
+    public void setRefreshSnapshots(
+        boolean refreshSnapshots)
+    {
+        this.refreshSnapshots = refreshSnapshots;
+        setChangingMatcher(PatternMatcher.REGEXP);
+        setChangingPattern(refreshSnapshots ? SNAPSHOT_PATTERN : null);
+    }
+
+    public boolean isRefreshSnapshots()
+    {
+        return refreshSnapshots;
+    }
+
+    public void setOffline(
+        boolean offline)
+    {
+        this.offline = offline;
+    }
+
+    public boolean isOffline()
+    {
+        return offline;
+    }
+
+    public void setDigests(
+        RymDigests digests)
+    {
+        this.digests = digests;
+    }
+
+    public void setChecksumPolicy(
+        RymChecksumPolicy checksumPolicy)
+    {
+        this.checksumPolicy = checksumPolicy;
+    }
+
+    public void setGroups(
+        List<String> groups)
+    {
+        this.groups = groups;
+    }
+
+    public void setExcludedGroups(
+        List<String> excludedGroups)
+    {
+        this.excludedGroups = excludedGroups;
+    }
+
+    public void setMisses(
+        RymMisses misses)
+    {
+        this.misses = misses;
+    }
+
+    public boolean accepts(
+        String group)
+    {
+        return (groups == null || groups.stream().anyMatch(g -> matches(g, group))) &&
+            (excludedGroups == null || excludedGroups.stream().noneMatch(g -> matches(g, group)));
+    }
+
+    @Override
+    public ResolvedResource findIvyFileRef(
+        DependencyDescriptor dd,
+        ResolveData data)
+    {
+        ModuleRevisionId mrid = dd.getDependencyRevisionId();
+        String lookup = isCacheableMiss(mrid) ? mrid.toString() : null;
+        boolean skip = offline || !accepts(mrid.getOrganisation()) || isMissing(lookup);
+        ResolvedResource resource = null;
+        if (!skip)
+        {
+            int failures = RymURLHandler.failures();
+            resource = super.findIvyFileRef(dd, data);
+            recordLookup(lookup, mrid, resource, RymURLHandler.failures() == failures);
+        }
+        return resource;
+    }
+
+    @Override
+    public ResolvedResource findArtifactRef(
+        Artifact artifact,
+        Date date)
+    {
+        ModuleRevisionId mrid = artifact.getModuleRevisionId();
+        String lookup = isCacheableMiss(mrid) ? artifact.toString() : null;
+        boolean skip = offline || !accepts(mrid.getOrganisation()) || isMissing(lookup);
+        ResolvedResource resource = null;
+        if (!skip)
+        {
+            int failures = RymURLHandler.failures();
+            resource = super.findArtifactRef(artifact, date);
+            recordLookup(lookup, mrid, resource, RymURLHandler.failures() == failures);
+        }
+        return resource;
+    }
+
+    @Override
+    protected long get(
+        Resource resource,
+        File dest) throws IOException
+    {
+        String preferred = checksum;
+        String[][] checksums = checksumPolicy != RymChecksumPolicy.IGNORE ? checksumsOf(preferred) : new String[0][];
+        List<Future<String>> sidecars = new ArrayList<>();
+        for (int index = 0; index < checksums.length; index++)
+        {
+            if (index == 0 || preferred == null)
+            {
+                sidecars.add(readChecksumAsync(resource, checksums[index][0]));
+            }
+        }
+
+        long size;
+        try
+        {
+            size = super.get(resource, dest);
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            sidecars.forEach(s -> s.cancel(true));
+            throw ex;
+        }
+
+        Path path = dest.toPath();
+        String sha256 = RymFingerprint.sha256(path);
+        String verified = null;
+        List<String> unavailable = new ArrayList<>();
+        for (int index = 0; index < checksums.length && verified == null; index++)
+        {
+            String extension = checksums[index][0];
+            Future<String> sidecar = index < sidecars.size()
+                ? sidecars.get(index)
+                : readChecksumAsync(resource, extension);
+
+            String expected;
+            try
+            {
+                expected = awaitChecksum(sidecar);
+            }
+            catch (IOException ex)
+            {
+                unavailable.add(String.format("%s %s", extension, ex.getMessage()));
+                continue;
+            }
+
+            String computed = "sha256".equals(extension) ? sha256 : RymFingerprint.digest(path, checksums[index][1]);
+            if (!expected.equals(computed))
+            {
+                sidecars.forEach(s -> s.cancel(true));
+                Files.deleteIfExists(path);
+                throw new IOException(String.format("invalid %s for %s: expected=%s computed=%s",
+                    extension, resource.getName(), expected, computed));
+            }
+
+            verified = extension;
+            checksum = extension;
+        }
+        sidecars.forEach(s -> s.cancel(true));
+
+        if (verified == null && checksumPolicy != RymChecksumPolicy.IGNORE)
+        {
+            String reason = String.format("no checksum for %s: %s", resource.getName(), String.join(", ", unavailable));
+            if (checksumPolicy == RymChecksumPolicy.FAIL)
+            {
+                Files.deleteIfExists(path);
+                throw new IOException(reason);
+            }
+            else if (isLocal())
+            {
+                // locally installed artifacts are not published with checksum sidecars
+                Message.verbose(String.format("\t%s, recorded as unverified", reason));
+            }
+            else
+            {
+                Message.warn(String.format("\t%s, recorded as unverified", reason));
+            }
+        }
+
+        if (digests != null)
+        {
+            String name = path.getFileName().toString();
+            Path target = name.endsWith(PART_SUFFIX)
+                ? path.resolveSibling(name.substring(0, name.length() - PART_SUFFIX.length()))
+                : path;
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            digests.verified(target, RymDigest.of(sha256, Files.size(path), modified, verified));
+        }
+
+        return size;
+    }
+
+    @Override
+    protected CacheMetadataOptions getCacheOptions(
+        ResolveData data)
+    {
+        CacheMetadataOptions options = super.getCacheOptions(data);
+        options.setForce(refresh);
+        return options;
+    }
+
+    private boolean isLocal()
+    {
+        return getRoot() != null && getRoot().startsWith("file:");
+    }
+
+    private boolean isCacheableMiss(
+        ModuleRevisionId mrid)
+    {
+        return misses != null &&
+            !mrid.getRevision().endsWith(SNAPSHOT_SUFFIX) &&
+            !getSettings().getVersionMatcher().isDynamic(mrid);
+    }
+
+    private boolean isMissing(
+        String lookup)
+    {
+        return lookup != null && misses.isMissing(getName(), lookup);
+    }
+
+    private void recordLookup(
+        String lookup,
+        ModuleRevisionId mrid,
+        ResolvedResource resource,
+        boolean definite)
+    {
+        if (!definite)
+        {
+            // the repository caches probed resources, so later lookups for this revision reuse the failure
+            unavailable.add(mrid);
+        }
+
+        if (lookup != null)
+        {
+            if (resource != null)
+            {
+                misses.found(getName(), lookup);
+            }
+            else if (!unavailable.contains(mrid))
+            {
+                misses.missed(getName(), lookup);
+            }
+        }
+    }
+
+    public static boolean matches(
+        String pattern,
+        String group)
+    {
+        boolean matches;
+        if ("*".equals(pattern))
+        {
+            matches = true;
+        }
+        else if (pattern.endsWith(".*"))
+        {
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            matches = group.startsWith(prefix) || group.equals(prefix.substring(0, prefix.length() - 1));
+        }
+        else
+        {
+            matches = pattern.equals(group);
+        }
+        return matches;
+    }
+
+    private static String[][] checksumsOf(
+        String preferred)
+    {
+        String[][] checksums = CHECKSUMS.clone();
+        if (preferred != null && !preferred.equals(checksums[0][0]))
+        {
+            Collections.reverse(Arrays.asList(checksums));
+        }
+        return checksums;
+    }
+
+    private static Future<String> readChecksumAsync(
+        Resource resource,
+        String extension)
+    {
+        return CHECKSUM_EXECUTOR.submit(() -> readChecksum(resource, extension));
+    }
+
+    private static String awaitChecksum(
+        Future<String> sidecar) throws IOException
+    {
+        try
+        {
+            return sidecar.get();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private static String readChecksum(
+        Resource resource,
+        String extension) throws IOException
+    {
+        Resource sidecar = resource.clone(String.format("%s.%s", resource.getName(), extension));
+        try (InputStream in = sidecar.openStream())
+        {
+            String contents = new String(in.readAllBytes(), US_ASCII).trim();
+            if (contents.isEmpty())
+            {
+                throw new IOException("empty");
+            }
+            return contents.split("\\s+")[0].toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.reaktivity.rym.internal.commands.install.RymFingerprint;
+
+public final class RymStore
+{
+    private final Path directory;
+    private final Path lockFile;
+
+    public RymStore(
+        Path directory)
+    {
+        this.directory = directory;
+        this.lockFile = directory.resolve(".lock");
+    }
+
+    public boolean link(
+        String sha256,
+        Path target) throws IOException
+    {
+        Path entry = entryPath(sha256);
+
+        boolean linked = false;
+        try (FileChannel channel = openLock())
+        {
+            FileLock lock = channel.lock(0L, Long.MAX_VALUE, true);
+            try
+            {
+                if (Files.exists(entry))
+                {
+                    linkOrCopy(entry, target);
+                    linked = true;
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+
+        return linked;
+    }
+
+    public String publish(
+        Path source) throws IOException
+    {
+        String sha256 = RymFingerprint.sha256(source);
+        publish(source, sha256);
+        return sha256;
+    }
+
+    public void publish(
+        Path source,
+        String sha256) throws IOException
+    {
+        Path entry = entryPath(sha256);
+
+        try (FileChannel channel = openLock())
+        {
+            FileLock lock = channel.lock();
+            try
+            {
+                if (!Files.exists(entry))
+                {
+                    Files.createDirectories(entry.getParent());
+                    Path partial = entry.resolveSibling(String.format("%s.part", entry.getFileName()));
+                    Files.copy(source, partial, REPLACE_EXISTING);
+                    Files.move(partial, entry, ATOMIC_MOVE);
+                }
+
+                if (!Files.isSameFile(entry, source))
+                {
+                    linkOrCopy(entry, source);
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+    }
+
+    private Path entryPath(
+        String sha256)
+    {
+        return directory.resolve("sha256").resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    private FileChannel openLock() throws IOException
+    {
+        Files.createDirectories(directory);
+        return FileChannel.open(lockFile, CREATE, READ, WRITE);
+    }
+
+    private static void linkOrCopy(
+        Path entry,
+        Path target) throws IOException
+    {
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(String.format("%s.link", target.getFileName()));
+        Files.deleteIfExists(partial);
+
+        try
+        {
+            Files.createLink(partial, entry);
+        }
+        catch (UnsupportedOperationException | FileSystemException ex)
+        {
+            Files.copy(entry, partial, REPLACE_EXISTING);
+        }
+
+        Files.move(partial, target, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static java.net.HttpURLConnection.HTTP_GONE;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.apache.ivy.core.settings.TimeoutConstraint;
+import org.apache.ivy.util.Message;
+import org.apache.ivy.util.url.BasicURLHandler;
+import org.apache.ivy.util.url.IvyAuthenticator;
+import org.apache.ivy.util.url.URLHandlerRegistry;
+
+/**
+ * Probes http(s) resources itself so the status of the single probe request tells a definite miss,
+ * 404 or 410, apart from a timeout, an authentication failure or a server error, which are counted.
+ */
+final class RymURLHandler extends BasicURLHandler
+{
+    private static final ThreadLocal<int[]> FAILURES = ThreadLocal.withInitial(() -> new int[1]);
+
+    static synchronized void install()
+    {
+        if (!(URLHandlerRegistry.getDefault() instanceof RymURLHandler))
+        {
+            URLHandlerRegistry.setDefault(new RymURLHandler());
+        }
+    }
+
+    static int failures()
+    {
+        return FAILURES.get()[0];
+    }
+
+    @Override
+    public URLInfo getURLInfo(
+        URL url,
+        TimeoutConstraint timeoutConstraint)
+    {
+        boolean http = "http".equals(url.getProtocol()) || "https".equals(url.getProtocol());
+        return http ? getHttpURLInfo(url, timeoutConstraint) : super.getURLInfo(url, timeoutConstraint);
+    }
+
+    private URLInfo getHttpURLInfo(
+        URL url,
+        TimeoutConstraint timeoutConstraint)
+    {
+        IvyAuthenticator.install();
+
+        URLInfo info = UNAVAILABLE;
+        HttpURLConnection connection = null;
+        try
+        {
+            connection = (HttpURLConnection) normalizeToURL(url).openConnection();
+            if (timeoutConstraint != null)
+            {
+                connection.setConnectTimeout(Math.max(timeoutConstraint.getConnectionTimeout(), 0));
+                connection.setReadTimeout(Math.max(timeoutConstraint.getReadTimeout(), 0));
+            }
+            connection.setRequestProperty("User-Agent", getUserAgent());
+            if (getRequestMethod() == REQUEST_METHOD_HEAD)
+            {
+                connection.setRequestMethod("HEAD");
+            }
+
+            int status = connection.getResponseCode();
+            if (status == HTTP_OK || status == HTTP_NO_CONTENT && "HEAD".equals(connection.getRequestMethod()))
+            {
+                String charset = getCharSetFromContentType(connection.getContentType());
+                info = new URLInfo(true, connection.getContentLengthLong(), connection.getLastModified(), charset)
+                {
+                };
+            }
+            else if (status == HTTP_NOT_FOUND || status == HTTP_GONE)
+            {
+                Message.verbose(String.format("\tnot found: %s", url));
+            }
+            else
+            {
+                FAILURES.get()[0]++;
+                Message.warn(String.format("\tunavailable: HTTP %d %s", status, url));
+            }
+        }
+        catch (IOException ex)
+        {
+            FAILURES.get()[0]++;
+            Message.warn(String.format("\tunavailable: %s %s", url, ex));
+        }
+        finally
+        {
+            if (connection != null)
+            {
+                connection.disconnect();
+            }
+        }
+        return info;
+    }
+}
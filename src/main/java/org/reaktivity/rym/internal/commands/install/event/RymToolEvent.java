@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.reaktivity.rym.Tool")
+@Label("Tool Invocation")
+@Description("An invocation of a JDK tool")
+@Category({ "Rym", "Install" })
+public final class RymToolEvent extends Event
+{
+    @Label("Tool")
+    public String tool;
+
+    @Label("Arguments")
+    public String arguments;
+
+    @Label("Exit Status")
+    @Description("Tool exit status, or -1 when the tool failed with an exception")
+    public int status;
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.prefetch;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.apache.ivy.util.DefaultMessageLogger;
+import org.apache.ivy.util.Message;
+import org.reaktivity.rym.internal.commands.install.RymInstallMetrics;
+import org.reaktivity.rym.internal.commands.install.RymResolveCommand;
+import org.reaktivity.rym.internal.commands.install.cache.RymArtifact;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+@Command(
+    name = "prefetch",
+    description = "Download dependencies into the cache")
+public final class RymPrefetch extends RymResolveCommand
+{
+    @Option(name = { "--update-lock" },
+            description = "also write the resolved artifacts to rym-lock.json")
+    public boolean updateLock;
+
+    @Override
+    public void invoke()
+    {
+        int level = silent ? Message.MSG_WARN : Message.MSG_INFO;
+        logger = new DefaultMessageLogger(level);
+        Message.setDefaultLogger(logger);
+
+        metrics = new RymInstallMetrics();
+        metrics.stages = new ArrayList<>();
+
+        try
+        {
+            Path rymFile = configDir.resolve("rym.json");
+            Path lockFile = lockDir.resolve("rym-lock.json");
+
+            Collection<RymArtifact> artifacts = resolveArtifacts(rymFile, lockFile);
+            logger.info(String.format("prefetched %d artifacts into %s", artifacts.size(), cacheDir));
+        }
+        catch (Exception ex)
+        {
+            logger.error(String.format("Error: %s", ex.getMessage()));
+            throw new RuntimeException(ex);
+        }
+        finally
+        {
+            if (!silent)
+            {
+                logger.sumupProblems();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldWriteLock()
+    {
+        return updateLock;
+    }
+}
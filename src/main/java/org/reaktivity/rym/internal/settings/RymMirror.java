@@ -0,0 +1,81 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.settings;
+
+import java.util.Objects;
+
+public final class RymMirror
+{
+    public String location;
+    public String mirrorOf;
+
+    public RymMirror()
+    {
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(location, mirrorOf);
+    }
+
+    @Override
+    public boolean equals(
+        Object obj)
+    {
+        if (obj == this)
+        {
+            return true;
+        }
+
+        if (!(obj instanceof RymMirror))
+        {
+            return false;
+        }
+
+        RymMirror that = (RymMirror) obj;
+        return Objects.equals(this.location, that.location) &&
+                Objects.equals(this.mirrorOf, that.mirrorOf);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s -> %s", mirrorOf, location);
+    }
+
+    public boolean matches(
+        String repository)
+    {
+        return "*".equals(mirrorOf) && !repository.startsWith("file:") ||
+                Objects.equals(mirrorOf, repository);
+    }
+
+    public static RymMirror of(
+        String location,
+        String mirrorOf)
+    {
+        return new RymMirror(location, mirrorOf);
+    }
+
+    RymMirror(
+        String location,
+        String mirrorOf)
+    {
+        this.location = location;
+        this.mirrorOf = mirrorOf;
+    }
+}
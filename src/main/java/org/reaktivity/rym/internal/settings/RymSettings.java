@@ -21,11 +21,12 @@ import java.util.Objects;
 public final class RymSettings
 {
     public List<RymCredentials> credentials;
+    public List<RymMirror> mirrors;
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(credentials);
+        return Objects.hash(credentials, mirrors);
     }
 
     @Override
@@ -42,6 +43,7 @@ public final class RymSettings
         }
 
         RymSettings that = (RymSettings) obj;
-        return Objects.deepEquals(this.credentials, that.credentials);
+        return Objects.deepEquals(this.credentials, that.credentials) &&
+                Objects.deepEquals(this.mirrors, that.mirrors);
     }
 }
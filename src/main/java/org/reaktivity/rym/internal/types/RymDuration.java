@@ -0,0 +1,52 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.types;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class RymDuration
+{
+    private static final Pattern DURATION_PATTERN = Pattern.compile("(\\d+)([smhd])");
+
+    public static Duration parse(
+        String value)
+    {
+        Matcher matcher = DURATION_PATTERN.matcher(value);
+        if (!matcher.matches())
+        {
+            return Duration.parse(value);
+        }
+
+        long amount = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2))
+        {
+        case "s":
+            return Duration.ofSeconds(amount);
+        case "m":
+            return Duration.ofMinutes(amount);
+        case "h":
+            return Duration.ofHours(amount);
+        default:
+            return Duration.ofDays(amount);
+        }
+    }
+
+    private RymDuration()
+    {
+    }
+}
@@ -17,6 +17,7 @@ package org.reaktivity.rym.internal.commands.install;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyCollectionOf;
@@ -184,6 +185,104 @@ public class RymConfigurationTest
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void shouldReadRepositoryWithRefreshPolicies()
+    {
+        String text =
+                "{" +
+                    "\"repositories\":" +
+                    "[" +
+                        "{" +
+                            "\"location\":\"https://maven.example.com/maven2/\"," +
+                            "\"releases\":\"never\"," +
+                            "\"snapshots\":\"interval:30m\"" +
+                        "}," +
+                        "\"https://repo1.maven.org/maven2/\"" +
+                    "]" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymConfiguration config = builder.fromJson(text, RymConfiguration.class);
+
+        assertThat(config, not(nullValue()));
+        assertThat(config.repositories, not(nullValue()));
+        assertThat(config.repositories, equalTo(asList(
+                new RymRepository("https://maven.example.com/maven2/", "never", "interval:30m"),
+                new RymRepository("https://repo1.maven.org/maven2/"))));
+    }
+
+    @Test
+    public void shouldWriteRepositoryWithRefreshPolicies()
+    {
+        String expected =
+                "{" +
+                    "\"repositories\":" +
+                    "[" +
+                        "{" +
+                            "\"location\":\"https://maven.example.com/maven2/\"," +
+                            "\"releases\":\"never\"" +
+                        "}" +
+                    "]" +
+                "}";
+
+        RymConfiguration config = new RymConfiguration();
+        config.repositories = Collections.singletonList(
+                new RymRepository("https://maven.example.com/maven2/", "never", null));
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(config);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldReadRepositoryWithGroups()
+    {
+        String text =
+                "{" +
+                    "\"repositories\":" +
+                    "[" +
+                        "{" +
+                            "\"location\":\"https://maven.pkg.github.com/reaktivity/\"," +
+                            "\"groups\":[\"org.reaktivity.*\"]" +
+                        "}," +
+                        "\"https://repo1.maven.org/maven2/\"" +
+                    "]" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymConfiguration config = builder.fromJson(text, RymConfiguration.class);
+
+        assertThat(config, not(nullValue()));
+        assertThat(config.repositories, equalTo(asList(
+                new RymRepository("https://maven.pkg.github.com/reaktivity/", null, null, singletonList("org.reaktivity.*")),
+                new RymRepository("https://repo1.maven.org/maven2/"))));
+    }
+
+    @Test
+    public void shouldWriteRepositoryWithGroups()
+    {
+        String expected =
+                "{" +
+                    "\"repositories\":" +
+                    "[" +
+                        "{" +
+                            "\"location\":\"https://maven.pkg.github.com/reaktivity/\"," +
+                            "\"groups\":[\"org.reaktivity.*\"]" +
+                        "}" +
+                    "]" +
+                "}";
+
+        RymConfiguration config = new RymConfiguration();
+        config.repositories = Collections.singletonList(
+                new RymRepository("https://maven.pkg.github.com/reaktivity/", null, null, singletonList("org.reaktivity.*")));
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(config);
+
+        assertEquals(expected, actual);
+    }
+
     @Test
     public void shouldReadEmptyDependencies()
     {
@@ -302,4 +401,219 @@ public class RymConfigurationTest
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void shouldReadArtifacts()
+    {
+        String text =
+                "{" +
+                    "\"artifacts\":" +
+                    "[" +
+                        "{" +
+                            "\"depends\":" +
+                            "[" +
+                                "\"org.agrona:agrona:1.6.0\"" +
+                            "]," +
+                            "\"id\":\"org.reaktivity:reaktor:1.0.0\"," +
+                            "\"path\":\"org.reaktivity/reaktor/jars/reaktor-1.0.0.jar\"," +
+                            "\"repository\":\"https://repo1.maven.org/maven2/\"," +
+                            "\"sha256\":\"3cedaf8a\"," +
+                            "\"verified\":\"sha1\"" +
+                        "}" +
+                    "]" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymConfiguration config = builder.fromJson(text, RymConfiguration.class);
+
+        assertThat(config, not(nullValue()));
+        assertThat(config.artifacts, equalTo(singletonList(
+                new RymLockedArtifact(
+                    new RymDependency("org.reaktivity", "reaktor", "1.0.0"),
+                    singletonList(new RymDependency("org.agrona", "agrona", "1.6.0")),
+                    "https://repo1.maven.org/maven2/",
+                    "org.reaktivity/reaktor/jars/reaktor-1.0.0.jar",
+                    "3cedaf8a",
+                    "sha1"))));
+    }
+
+    @Test
+    public void shouldWriteArtifacts()
+    {
+        String expected =
+                "{" +
+                    "\"artifacts\":" +
+                    "[" +
+                        "{" +
+                            "\"depends\":" +
+                            "[" +
+                                "\"org.agrona:agrona:1.6.0\"" +
+                            "]," +
+                            "\"id\":\"org.reaktivity:reaktor:1.0.0\"," +
+                            "\"path\":\"org.reaktivity/reaktor/jars/reaktor-1.0.0.jar\"," +
+                            "\"repository\":\"https://repo1.maven.org/maven2/\"," +
+                            "\"sha256\":\"3cedaf8a\"," +
+                            "\"verified\":\"sha1\"" +
+                        "}" +
+                    "]" +
+                "}";
+
+        RymConfiguration config = new RymConfiguration();
+        config.artifacts = Collections.singletonList(
+                new RymLockedArtifact(
+                    new RymDependency("org.reaktivity", "reaktor", "1.0.0"),
+                    singletonList(new RymDependency("org.agrona", "agrona", "1.6.0")),
+                    "https://repo1.maven.org/maven2/",
+                    "org.reaktivity/reaktor/jars/reaktor-1.0.0.jar",
+                    "3cedaf8a",
+                    "sha1"));
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(config);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldReadImage()
+    {
+        String text =
+                "{" +
+                    "\"image\":" +
+                    "{" +
+                        "\"profile\":\"startup\"" +
+                    "}" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymConfiguration config = builder.fromJson(text, RymConfiguration.class);
+
+        assertThat(config, not(nullValue()));
+        assertThat(config.image, not(nullValue()));
+        assertThat(config.image.profile, equalTo("startup"));
+        assertThat(RymImageProfile.of(config.image.profile), equalTo(RymImageProfile.STARTUP));
+    }
+
+    @Test
+    public void shouldWriteImage()
+    {
+        String expected =
+                "{" +
+                    "\"image\":" +
+                    "{" +
+                        "\"profile\":\"debug\"" +
+                    "}" +
+                "}";
+
+        RymConfiguration config = new RymConfiguration();
+        config.image = new RymImage();
+        config.image.profile = "debug";
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(config);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldReadRefresh()
+    {
+        String text =
+                "{" +
+                    "\"refresh\":" +
+                    "{" +
+                        "\"releases\":\"daily\"," +
+                        "\"snapshots\":\"always\"" +
+                    "}" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymConfiguration config = builder.fromJson(text, RymConfiguration.class);
+
+        assertThat(config, not(nullValue()));
+        assertThat(config.refresh, not(nullValue()));
+        assertThat(config.refresh.releases, equalTo("daily"));
+        assertThat(config.refresh.snapshots, equalTo("always"));
+    }
+
+    @Test
+    public void shouldWriteRefresh()
+    {
+        String expected =
+                "{" +
+                    "\"refresh\":" +
+                    "{" +
+                        "\"releases\":\"never\"" +
+                    "}" +
+                "}";
+
+        RymConfiguration config = new RymConfiguration();
+        config.refresh = new RymRefresh();
+        config.refresh.releases = "never";
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(config);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldReadLauncher()
+    {
+        String text =
+                "{" +
+                    "\"launcher\":" +
+                    "{" +
+                        "\"main\":\"org.reaktivity.ry/org.reaktivity.ry.internal.RyMain\"," +
+                        "\"options\":" +
+                        "[" +
+                            "\"-Xmx2g\"," +
+                            "\"-XX:+AlwaysPreTouch\"" +
+                        "]," +
+                        "\"properties\":" +
+                        "{" +
+                            "\"reaktor.directory\":\"/var/run/reaktor\"" +
+                        "}," +
+                        "\"training\":" +
+                        "[" +
+                            "\"start\"," +
+                            "\"--exit\"" +
+                        "]" +
+                    "}" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymConfiguration config = builder.fromJson(text, RymConfiguration.class);
+
+        assertThat(config, not(nullValue()));
+        assertThat(config.launcher, not(nullValue()));
+        assertThat(config.launcher.main, equalTo("org.reaktivity.ry/org.reaktivity.ry.internal.RyMain"));
+        assertThat(config.launcher.options, equalTo(asList("-Xmx2g", "-XX:+AlwaysPreTouch")));
+        assertThat(config.launcher.properties, equalTo(singletonMap("reaktor.directory", "/var/run/reaktor")));
+        assertThat(config.launcher.training, equalTo(asList("start", "--exit")));
+    }
+
+    @Test
+    public void shouldWriteLauncher()
+    {
+        String expected =
+                "{" +
+                    "\"launcher\":" +
+                    "{" +
+                        "\"options\":" +
+                        "[" +
+                            "\"-XX:+UseZGC\"" +
+                        "]" +
+                    "}" +
+                "}";
+
+        RymConfiguration config = new RymConfiguration();
+        config.launcher = new RymLauncher();
+        config.launcher.options = singletonList("-XX:+UseZGC");
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(config);
+
+        assertEquals(expected, actual);
+    }
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.spi.ToolProvider;
+import java.util.stream.Stream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RymImageProfileTest
+{
+    private static final Path IMAGES_DIR = Paths.get("target/test-image-profiles");
+    private static final Path MODULES_DIR = IMAGES_DIR.resolve("modules");
+
+    private static final Map<RymImageProfile, Long> IMAGE_SIZES = new EnumMap<>(RymImageProfile.class);
+
+    @BeforeClass
+    public static void linkImages() throws IOException
+    {
+        Files.createDirectories(MODULES_DIR);
+
+        ToolProvider jlink = ToolProvider.findFirst("jlink").get();
+        for (RymImageProfile profile : RymImageProfile.values())
+        {
+            Path imageDir = IMAGES_DIR.resolve(profile.name().toLowerCase());
+            deleteDirectories(imageDir);
+
+            List<String> args = new ArrayList<>(linkOptions(profile, false));
+            args.add("--output");
+            args.add(imageDir.toString());
+            jlink.run(System.out, System.err, args.toArray(String[]::new));
+
+            IMAGE_SIZES.put(profile, Files.size(imageDir.resolve("lib/modules")));
+        }
+    }
+
+    @Test
+    public void shouldParseProfileNames()
+    {
+        assertThat(RymImageProfile.of("startup"), equalTo(RymImageProfile.STARTUP));
+        assertThat(RymImageProfile.of("SIZE"), equalTo(RymImageProfile.SIZE));
+        assertThat(RymImageProfile.of("Debug"), equalTo(RymImageProfile.DEBUG));
+    }
+
+    @Test
+    public void shouldNotParseUnknownProfileName()
+    {
+        try
+        {
+            RymImageProfile.of("fast");
+            throw new AssertionError("expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            assertThat(ex.getMessage(), containsString("fast"));
+            assertThat(ex.getMessage(), containsString("startup, size, debug"));
+        }
+    }
+
+    @Test
+    public void shouldLinkStartupProfileUncompressedWithoutDebug()
+    {
+        String options = String.join(" ", linkOptions(RymImageProfile.STARTUP, false));
+
+        assertThat(options, containsString("--compress 0"));
+        assertThat(options, containsString("--add-modules java.base "));
+        assertThat(linkOptions(RymImageProfile.STARTUP, false), hasItem("--strip-debug"));
+    }
+
+    @Test
+    public void shouldLinkSizeProfileCompressedWithoutDebug()
+    {
+        String options = String.join(" ", linkOptions(RymImageProfile.SIZE, false));
+
+        assertThat(options, containsString("--compress 2"));
+        assertThat(options, containsString("--add-modules java.base "));
+        assertThat(linkOptions(RymImageProfile.SIZE, false), hasItem("--strip-debug"));
+    }
+
+    @Test
+    public void shouldLinkDebugProfileUncompressedWithDebugAgent()
+    {
+        String options = String.join(" ", linkOptions(RymImageProfile.DEBUG, false));
+
+        assertThat(options, containsString("--compress 0"));
+        assertThat(options, containsString("--add-modules java.base,jdk.jdwp.agent "));
+        assertThat(linkOptions(RymImageProfile.DEBUG, false), not(hasItem("--strip-debug")));
+    }
+
+    @Test
+    public void shouldKeepDebugInfoWhenDebuggingAnyProfile()
+    {
+        String options = String.join(" ", linkOptions(RymImageProfile.SIZE, true));
+
+        assertThat(options, containsString("--compress 2"));
+        assertThat(options, containsString("--add-modules java.base,jdk.jdwp.agent "));
+        assertThat(linkOptions(RymImageProfile.SIZE, true), not(hasItem("--strip-debug")));
+    }
+
+    @Test
+    public void shouldLinkSmallestImageForSizeProfile()
+    {
+        assertThat(IMAGE_SIZES.get(RymImageProfile.STARTUP), greaterThan(IMAGE_SIZES.get(RymImageProfile.SIZE)));
+        assertThat(IMAGE_SIZES.get(RymImageProfile.DEBUG), greaterThan(IMAGE_SIZES.get(RymImageProfile.STARTUP)));
+    }
+
+    private static List<String> linkOptions(
+        RymImageProfile profile,
+        boolean debug)
+    {
+        return RymInstall.linkOptions(profile, debug, MODULES_DIR, singletonList("java.base"));
+    }
+
+    private static void deleteDirectories(
+        Path dir) throws IOException
+    {
+        if (Files.exists(dir))
+        {
+            try (Stream<Path> paths = Files.walk(dir))
+            {
+                paths.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.junit.Test;
+
+public class RymInstallManifestTest
+{
+    @Test
+    public void shouldReadManifest()
+    {
+        String text =
+                "{" +
+                    "\"promoted\":" +
+                    "[" +
+                        "\"org.agrona.core\"" +
+                    "]," +
+                    "\"stages\":" +
+                    "{" +
+                        "\"link\":\"a95b55d8\"" +
+                    "}" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymInstallManifest manifest = builder.fromJson(text, RymInstallManifest.class);
+
+        assertThat(manifest, not(nullValue()));
+        assertThat(manifest.promoted, equalTo(singletonList("org.agrona.core")));
+        assertThat(manifest.stages, equalTo(singletonMap("link", "a95b55d8")));
+    }
+
+    @Test
+    public void shouldWriteManifest()
+    {
+        String expected =
+                "{" +
+                    "\"promoted\":" +
+                    "[" +
+                        "\"org.agrona.core\"" +
+                    "]," +
+                    "\"stages\":" +
+                    "{" +
+                        "\"link\":\"a95b55d8\"" +
+                    "}" +
+                "}";
+
+        RymInstallManifest manifest = new RymInstallManifest();
+        manifest.promoted = singletonList("org.agrona.core");
+        manifest.stages = singletonMap("link", "a95b55d8");
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(manifest);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldFingerprintValuesInOrder()
+    {
+        String forward = new RymFingerprint().update("a").update("b").digest();
+        String reverse = new RymFingerprint().update("b").update("a").digest();
+        String joined = new RymFingerprint().update("ab").digest();
+
+        assertThat(forward, not(equalTo(reverse)));
+        assertThat(forward, not(equalTo(joined)));
+        assertThat(forward.length(), equalTo(64));
+    }
+}
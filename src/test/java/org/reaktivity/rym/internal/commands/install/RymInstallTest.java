@@ -15,18 +15,40 @@
  */
 package org.reaktivity.rym.internal.commands.install;
 
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.io.FileMatchers.anExistingFile;
+import static org.hamcrest.io.FileMatchers.anExistingFileOrDirectory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.json.bind.JsonbBuilder;
 
 import org.junit.Test;
 import org.reaktivity.rym.internal.RymCli;
 
 import com.github.rvesse.airline.Cli;
 
+import jdk.jfr.consumer.RecordingFile;
+
 public class RymInstallTest
 {
     @Test
@@ -55,4 +77,294 @@ public class RymInstallTest
         assertThat(new File("target/rym/cache/org.reaktivity/nukleus-echo/jars/nukleus-echo-0.25.jar"), anExistingFile());
         assertThat(new File("target/rym/cache/org.agrona/agrona/jars/agrona-1.6.0.jar"), anExistingFile());
     }
+
+    @Test
+    public void shouldInstallFromFixtureRepository() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/install");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 8, 4, 256);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        String[] args = installArgs(fixtureDir);
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        Runnable install = parser.parse(args);
+
+        install.run();
+
+        assertThat(fixtureDir.resolve("config/rym-lock.json").toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/modules/fixture.module4.jar").toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/modules/org.reaktivity.rym.delegate.jar").toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/image/release").toFile(), anExistingFile());
+    }
+
+    @Test
+    public void shouldInstallFromResolutionCache() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/resolution");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        String[] args = installArgs(fixtureDir);
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        parser.parse(args).run();
+
+        Files.delete(fixtureDir.resolve("config/rym-lock.json"));
+        RymRepositoryFixture.delete(fixture.repository());
+        RymRepositoryFixture.delete(fixtureDir.resolve("rym/cache/org.example.fixture/fixture-bom"));
+
+        parser.parse(args).run();
+
+        assertThat(fixtureDir.resolve("config/rym-lock.json").toFile(), anExistingFile());
+    }
+
+    @Test
+    public void shouldSkipLinkWhenInputsUnchanged() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/link-unchanged");
+        String[] args = installFixture(fixtureDir);
+
+        Path marker = fixtureDir.resolve("rym/image/marker");
+        Files.writeString(marker, "linked");
+
+        install(args);
+
+        assertThat(marker.toFile(), anExistingFile());
+    }
+
+    @Test
+    public void shouldNotRelinkWhenUnrelatedConfigChanges() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/link-config");
+        String[] args = installFixture(fixtureDir);
+
+        Path marker = fixtureDir.resolve("rym/image/marker");
+        Files.writeString(marker, "linked");
+
+        writeLauncher(fixtureDir, "\"properties\": { \"fixture.edited\": \"true\" }");
+        install(args);
+
+        assertThat(marker.toFile(), anExistingFile());
+        assertThat(Files.readString(fixtureDir.resolve("rym/ry")), containsString("-Dfixture.edited=true"));
+    }
+
+    @Test
+    public void shouldSkipPromoteAndDelegateWhenLauncherChanges() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/stages-launcher");
+        String[] args = installFixture(fixtureDir);
+
+        Path delegateJar = fixtureDir.resolve("rym/modules/org.reaktivity.rym.delegate.jar");
+        FileTime delegated = Files.getLastModifiedTime(delegateJar);
+        Map<String, String> stages = readManifest(fixtureDir).stages;
+
+        writeLauncher(fixtureDir, "\"options\": [ \"-Xmx64m\" ]");
+        install(args);
+
+        Map<String, String> restaged = readManifest(fixtureDir).stages;
+        assertThat(restaged.get("promote"), equalTo(stages.get("promote")));
+        assertThat(restaged.get("delegate"), equalTo(stages.get("delegate")));
+        assertThat(Files.getLastModifiedTime(delegateJar), equalTo(delegated));
+        assertThat(Files.readString(fixtureDir.resolve("rym/ry")), containsString("-Xmx64m"));
+    }
+
+    @Test
+    public void shouldRecoverPreviousImageAfterInterruptedSwap() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/link-recover");
+        String[] args = installFixture(fixtureDir);
+
+        Path marker = fixtureDir.resolve("rym/image/marker");
+        Files.writeString(marker, "linked");
+        Files.move(fixtureDir.resolve("rym/image"), fixtureDir.resolve("rym/image.previous"));
+
+        install(args);
+
+        assertThat(marker.toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/image.previous").toFile(), not(anExistingFileOrDirectory()));
+    }
+
+    @Test
+    public void shouldNotArchiveLauncherClassesWithoutTraining() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/app-cds-untrained");
+        String[] args = fixtureArgs(fixtureDir, "--app-cds");
+        writeLauncher(fixtureDir, "\"main\": \"fixture.module0/fixture.module0.Provider\"");
+
+        install(args);
+
+        assertThat(fixtureDir.resolve("rym/image/lib/server/classes.jsa").toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/image/lib/ry.jsa").toFile(), not(anExistingFile()));
+        assertThat(Files.readString(fixtureDir.resolve("rym/ry")), not(containsString("SharedArchiveFile")));
+    }
+
+    @Test
+    public void shouldArchiveLauncherClassesFromTraining() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/app-cds-trained");
+        String[] args = fixtureArgs(fixtureDir, "--app-cds");
+        writeLauncher(fixtureDir,
+            "\"main\": \"fixture.module0/fixture.module0.Provider\", \"training\": [ \"train\" ]");
+
+        install(args);
+
+        assertThat(fixtureDir.resolve("rym/image/lib/ry.jsa").toFile(), anExistingFile());
+        assertThat(Files.readString(fixtureDir.resolve("rym/ry")), containsString("SharedArchiveFile"));
+    }
+
+    @Test
+    public void shouldArchiveLauncherClassesWithoutRelinkWhenTrainingChanges() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/app-cds-retrained");
+        String[] args = fixtureArgs(fixtureDir, "--app-cds");
+        writeLauncher(fixtureDir, "\"main\": \"fixture.module0/fixture.module0.Provider\"");
+        install(args);
+
+        Path marker = fixtureDir.resolve("rym/image/marker");
+        Files.writeString(marker, "linked");
+
+        writeLauncher(fixtureDir,
+            "\"main\": \"fixture.module0/fixture.module0.Provider\", \"training\": [ \"train\" ]");
+        install(args);
+
+        assertThat(marker.toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/image/lib/ry.jsa").toFile(), anExistingFile());
+        assertThat(Files.readString(fixtureDir.resolve("rym/ry")), containsString("SharedArchiveFile"));
+    }
+
+    @Test
+    public void shouldArchiveLauncherClassesWhenTrainingTimesOut() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/app-cds-served");
+        String[] args = fixtureArgs(fixtureDir, "--app-cds", "--app-cds-training-timeout", "2s");
+        writeLauncher(fixtureDir,
+            "\"main\": \"fixture.module0/fixture.module0.Provider\", \"training\": [ \"serve\" ]");
+
+        install(args);
+
+        assertThat(fixtureDir.resolve("rym/image/lib/ry.jsa").toFile(), anExistingFile());
+        assertThat(Files.readString(fixtureDir.resolve("rym/ry")), containsString("SharedArchiveFile"));
+    }
+
+    @Test
+    public void shouldRecordReadableFlightRecording() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/record");
+        String[] args = fixtureArgs(fixtureDir, "--record");
+
+        install(args);
+
+        Set<String> events = RecordingFile.readAllEvents(fixtureDir.resolve("rym/rym-install.jfr")).stream()
+                .map(e -> e.getEventType().getName())
+                .collect(toSet());
+        assertThat(events, hasItems("org.reaktivity.rym.Stage", "org.reaktivity.rym.Download", "org.reaktivity.rym.Tool"));
+
+        Set<String> scanned = RecordingFile.readAllEvents(fixtureDir.resolve("rym/rym-install.jfr")).stream()
+                .filter(e -> "org.reaktivity.rym.Jar".equals(e.getEventType().getName()))
+                .filter(e -> "scan".equals(e.getString("operation")))
+                .map(e -> Paths.get(e.getString("path")).getFileName().toString())
+                .collect(toSet());
+        assertThat(scanned, hasItems("fixture-module0-1.0.jar", "fixture-unnamed3-1.0.jar"));
+        assertThat(scanned, hasItem(containsString("delegate")));
+    }
+
+    @Test
+    public void shouldRecordFailedDownload() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/record-failed");
+        String[] args = fixtureArgs(fixtureDir, "--record");
+
+        Path jarDir = fixtureDir.resolve("fixture/repository/org/example/fixture/fixture-promoted1/1.0");
+        Files.writeString(jarDir.resolve("fixture-promoted1-1.0.jar.sha1"), "0000000000000000000000000000000000000000");
+
+        try
+        {
+            install(args);
+            throw new AssertionError("expected install to fail");
+        }
+        catch (RuntimeException ex)
+        {
+            // expected
+        }
+
+        List<String> statuses = RecordingFile.readAllEvents(fixtureDir.resolve("rym/rym-install.jfr")).stream()
+                .filter(e -> "org.reaktivity.rym.Download".equals(e.getEventType().getName()))
+                .map(e -> e.getString("status"))
+                .collect(toList());
+        assertThat(statuses, hasItem(containsString("failed")));
+    }
+
+    private static String[] installFixture(
+        Path fixtureDir) throws IOException
+    {
+        String[] args = fixtureArgs(fixtureDir);
+
+        install(args);
+
+        assertThat(fixtureDir.resolve("rym/image/release").toFile(), anExistingFile());
+
+        return args;
+    }
+
+    private static String[] fixtureArgs(
+        Path fixtureDir,
+        String... options) throws IOException
+    {
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        return installArgs(fixtureDir, options);
+    }
+
+    private static String[] installArgs(
+        Path fixtureDir,
+        String... options)
+    {
+        String[] args =
+        {
+            "install",
+            "--config-directory", fixtureDir.resolve("config").toString(),
+            "--settings-directory", fixtureDir.resolve("settings").toString(),
+            "--output-directory", fixtureDir.resolve("rym").toString(),
+            "--launcher-directory", fixtureDir.resolve("rym").toString(),
+            "--exclude-local-repository",
+            "--silent"
+        };
+
+        return Stream.concat(Arrays.stream(args), Arrays.stream(options)).toArray(String[]::new);
+    }
+
+    private static RymInstallManifest readManifest(
+        Path fixtureDir) throws IOException
+    {
+        try (InputStream in = Files.newInputStream(fixtureDir.resolve("rym/rym-install.json")))
+        {
+            return JsonbBuilder.create().fromJson(in, RymInstallManifest.class);
+        }
+    }
+
+    private static void writeLauncher(
+        Path fixtureDir,
+        String launcher) throws IOException
+    {
+        Path configFile = fixtureDir.resolve("config/rym.json");
+        String config = Files.readString(configFile).replaceFirst("\\{\n  \"launcher\": \\{[^\n]*\\},", "{");
+        Files.writeString(configFile, config.replaceFirst("\\{", String.format("{\n  \"launcher\": { %s },", launcher)));
+    }
+
+    private static void install(
+        String[] args)
+    {
+        new Cli<Runnable>(RymCli.class).parse(args).run();
+    }
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RymJarWriterTest
+{
+    private static final Path EXAMPLE_DIR = Paths.get("target/test-jar-writer");
+    private static final Path EXAMPLE_JAR = EXAMPLE_DIR.resolve("example.jar");
+
+    @BeforeClass
+    public static void generateJar() throws IOException
+    {
+        Files.createDirectories(EXAMPLE_DIR);
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(EXAMPLE_JAR)))
+        {
+            jar.putNextEntry(new JarEntry("org/example/"));
+            jar.closeEntry();
+            jar.putNextEntry(new JarEntry("org/example/deflated.txt"));
+            jar.write("deflated contents".getBytes(UTF_8));
+            jar.closeEntry();
+
+            byte[] stored = "stored contents".getBytes(UTF_8);
+            JarEntry storedEntry = new JarEntry("org/example/stored.txt");
+            storedEntry.setMethod(ZipEntry.STORED);
+            storedEntry.setSize(stored.length);
+            storedEntry.setCrc(crc(stored));
+            jar.putNextEntry(storedEntry);
+            jar.write(stored);
+            jar.closeEntry();
+        }
+    }
+
+    @Test
+    public void shouldCopyJarAndPutEntry() throws IOException
+    {
+        Path target = EXAMPLE_DIR.resolve("extended.jar");
+        try (RymJarWriter writer = new RymJarWriter(target))
+        {
+            writer.copyJar(EXAMPLE_JAR);
+            writer.putEntry("module-info.class", 318240000000L, "module contents".getBytes(UTF_8));
+        }
+
+        try (JarFile jar = new JarFile(target.toFile()))
+        {
+            assertThat(names(jar), equalTo(asList(
+                    "org/example/",
+                    "org/example/deflated.txt",
+                    "org/example/stored.txt",
+                    "module-info.class")));
+            assertThat(contents(jar, "org/example/deflated.txt"), equalTo("deflated contents"));
+            assertThat(contents(jar, "org/example/stored.txt"), equalTo("stored contents"));
+            assertThat(contents(jar, "module-info.class"), equalTo("module contents"));
+            assertThat(jar.getEntry("module-info.class").getTime(), equalTo(318240000000L));
+        }
+    }
+
+    @Test
+    public void shouldCopyFilteredEntries() throws IOException
+    {
+        Path target = EXAMPLE_DIR.resolve("filtered.jar");
+        try (RymJarWriter writer = new RymJarWriter(target))
+        {
+            writer.putEntry("META-INF/services/org.example.Service", 318240000000L, "org.example.Impl".getBytes(UTF_8));
+            writer.copyEntries(EXAMPLE_JAR, n -> n.endsWith(".txt"));
+        }
+
+        try (JarFile jar = new JarFile(target.toFile()))
+        {
+            assertThat(names(jar), equalTo(asList(
+                    "META-INF/services/org.example.Service",
+                    "org/example/deflated.txt",
+                    "org/example/stored.txt")));
+            assertThat(contents(jar, "META-INF/services/org.example.Service"), equalTo("org.example.Impl"));
+            assertThat(contents(jar, "org/example/deflated.txt"), equalTo("deflated contents"));
+            assertThat(contents(jar, "org/example/stored.txt"), equalTo("stored contents"));
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void shouldNotPutDuplicateEntry() throws IOException
+    {
+        try (RymJarWriter writer = new RymJarWriter(EXAMPLE_DIR.resolve("duplicate.jar")))
+        {
+            writer.copyJar(EXAMPLE_JAR);
+            writer.putEntry("org/example/stored.txt", 318240000000L, new byte[0]);
+        }
+    }
+
+    private static List<String> names(
+        JarFile jar)
+    {
+        return Collections.list(jar.entries()).stream().map(JarEntry::getName).collect(Collectors.toList());
+    }
+
+    private static String contents(
+        JarFile jar,
+        String name) throws IOException
+    {
+        try (InputStream input = jar.getInputStream(jar.getEntry(name)))
+        {
+            return new String(input.readAllBytes(), UTF_8);
+        }
+    }
+
+    private static long crc(
+        byte[] contents)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+        return crc.getValue();
+    }
+}
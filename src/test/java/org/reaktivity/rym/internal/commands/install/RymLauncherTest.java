@@ -0,0 +1,146 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.Test;
+
+public class RymLauncherTest
+{
+    @Test
+    public void shouldNotQuoteSafeArguments()
+    {
+        assertThat(RymInstall.quoteIfNecessary("-Xmx2g"), equalTo("-Xmx2g"));
+        assertThat(RymInstall.quoteIfNecessary("--add-opens"), equalTo("--add-opens"));
+        assertThat(RymInstall.quoteIfNecessary("java.base/sun.nio.ch=org.agrona.core"),
+                equalTo("java.base/sun.nio.ch=org.agrona.core"));
+        assertThat(RymInstall.quoteIfNecessary("-Dreaktor.directory=/var/run/reaktor"),
+                equalTo("-Dreaktor.directory=/var/run/reaktor"));
+    }
+
+    @Test
+    public void shouldQuoteArgumentsWithShellCharacters()
+    {
+        assertThat(RymInstall.quoteIfNecessary("-Dname=a b"), equalTo("'-Dname=a b'"));
+        assertThat(RymInstall.quoteIfNecessary("-Dname=$HOME"), equalTo("'-Dname=$HOME'"));
+        assertThat(RymInstall.quoteIfNecessary("-Dname=`id`;exit"), equalTo("'-Dname=`id`;exit'"));
+        assertThat(RymInstall.quoteIfNecessary("-Dname=*"), equalTo("'-Dname=*'"));
+    }
+
+    @Test
+    public void shouldQuoteArgumentsWithSingleQuotes()
+    {
+        assertThat(RymInstall.quoteIfNecessary("-Dname=it's"), equalTo("'-Dname=it'\\''s'"));
+    }
+
+    @Test
+    public void shouldAcceptLauncherConfiguration()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.options = asList("-Xmx2g", "-XX:+AlwaysPreTouch");
+        launcher.properties = singletonMap("reaktor.name", "a b");
+        launcher.main = "org.example.app/org.example.app.Main";
+        launcher.training = asList("start", "--exit");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOptionWithControlCharacter()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.options = singletonList("-Xmx2g\n-Xms1g");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOptionWithoutDash()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.options = singletonList("Xmx2g");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMainModuleOption()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.options = singletonList("--module=org.example.app/org.example.app.Main");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectJarOption()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.options = singletonList("-jar");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPropertyValueWithControlCharacter()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.properties = singletonMap("reaktor.name", "a\u0000b");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPropertyNameWithEquals()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.properties = singletonMap("reaktor.name=x", "y");
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidMain()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.main = "org.example.app/Main; rm -rf /";
+
+        configure(launcher);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTrainingArgumentWithControlCharacter()
+    {
+        RymLauncher launcher = new RymLauncher();
+        launcher.training = singletonList("start\r");
+
+        configure(launcher);
+    }
+
+    private static void configure(
+        RymLauncher launcher)
+    {
+        RymConfiguration config = new RymConfiguration();
+        config.launcher = launcher;
+
+        new RymInstall().configure(config);
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleDescriptor.Exports;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.spi.ToolProvider;
+import java.util.stream.Collectors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RymModuleCompilerTest
+{
+    private static final Path EXAMPLE_DIR = Paths.get("target/test-module-compiler");
+    private static final Path EXAMPLE_JAR = EXAMPLE_DIR.resolve("example.jar");
+
+    @BeforeClass
+    public static void generateJar() throws IOException
+    {
+        Path sourcePath = EXAMPLE_DIR.resolve("src/org/example/Example.java");
+        Path classesDir = EXAMPLE_DIR.resolve("classes");
+        Files.createDirectories(sourcePath.getParent());
+        Files.writeString(sourcePath, "package org.example; public class Example {}");
+
+        ToolProvider javac = ToolProvider.findFirst("javac").get();
+        javac.run(System.out, System.err, "-d", classesDir.toString(), sourcePath.toString());
+
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(EXAMPLE_JAR)))
+        {
+            jar.putNextEntry(new JarEntry("org/example/Example.class"));
+            jar.write(Files.readAllBytes(classesDir.resolve("org/example/Example.class")));
+            jar.closeEntry();
+        }
+    }
+
+    @Test
+    public void shouldCompileModuleInfo() throws IOException
+    {
+        String moduleInfo =
+                "module org.example {\n" +
+                "    exports org.example;\n" +
+                "}\n";
+
+        byte[] compiled = new RymModuleCompiler().compile(EXAMPLE_JAR, moduleInfo);
+        ModuleDescriptor descriptor = ModuleDescriptor.read(ByteBuffer.wrap(compiled));
+
+        assertThat(descriptor.name(), equalTo("org.example"));
+        assertThat(descriptor.exports().stream().map(Exports::source).collect(Collectors.toSet()),
+                equalTo(singleton("org.example")));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldNotCompileModuleInfoExportingMissingPackage() throws IOException
+    {
+        String moduleInfo =
+                "module org.example {\n" +
+                "    exports org.missing;\n" +
+                "}\n";
+
+        new RymModuleCompiler().compile(EXAMPLE_JAR, moduleInfo);
+    }
+}
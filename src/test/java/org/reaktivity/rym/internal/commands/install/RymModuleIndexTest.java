@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+
+import org.junit.Test;
+
+public class RymModuleIndexTest
+{
+    @Test
+    public void shouldReadModuleIndex()
+    {
+        String text =
+                "{" +
+                    "\"modules\":" +
+                    "{" +
+                        "\"/cache/agrona-1.6.0.jar\":" +
+                        "{" +
+                            "\"automatic\":true," +
+                            "\"modified\":1600000000000," +
+                            "\"name\":\"org.agrona.core\"," +
+                            "\"size\":1024" +
+                        "}" +
+                    "}" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymModuleIndex index = builder.fromJson(text, RymModuleIndex.class);
+
+        assertThat(index, not(nullValue()));
+        assertThat(index.modules, equalTo(singletonMap("/cache/agrona-1.6.0.jar",
+                RymModuleIndexEntry.of(1024L, 1600000000000L, "org.agrona.core", true))));
+    }
+
+    @Test
+    public void shouldWriteModuleIndex()
+    {
+        String expected =
+                "{" +
+                    "\"modules\":" +
+                    "{" +
+                        "\"/cache/unnamed-1.0.jar\":" +
+                        "{" +
+                            "\"automatic\":false," +
+                            "\"modified\":1600000000000," +
+                            "\"size\":1024" +
+                        "}" +
+                    "}" +
+                "}";
+
+        RymModuleIndex index = new RymModuleIndex();
+        index.modules = singletonMap("/cache/unnamed-1.0.jar",
+                RymModuleIndexEntry.of(1024L, 1600000000000L, null, false));
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(index);
+
+        assertEquals(expected, actual);
+    }
+}
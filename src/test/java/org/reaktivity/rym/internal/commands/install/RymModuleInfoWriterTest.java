@@ -0,0 +1,64 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.spi.ToolProvider;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RymModuleInfoWriterTest
+{
+    private static final Path EXAMPLE_DIR = Paths.get("target/test-module-info-writer");
+    private static final Path DELEGATE_DIR = EXAMPLE_DIR.resolve("delegate");
+    private static final Path DELEGATING_DIR = EXAMPLE_DIR.resolve("delegating");
+
+    @BeforeClass
+    public static void generateModules() throws IOException
+    {
+        Path delegateSource = DELEGATE_DIR.resolve("src/module-info.java");
+        Path delegatingSource = DELEGATING_DIR.resolve("src/module-info.java");
+        Files.createDirectories(delegateSource.getParent());
+        Files.createDirectories(delegatingSource.getParent());
+        Files.writeString(delegateSource, "module org.example.delegate {}");
+        Files.writeString(delegatingSource, "open module org.example { requires transitive org.example.delegate; }");
+
+        ToolProvider javac = ToolProvider.findFirst("javac").get();
+        javac.run(System.out, System.err,
+                "-d", DELEGATE_DIR.resolve("classes").toString(),
+                delegateSource.toString());
+        javac.run(System.out, System.err,
+                "-d", DELEGATING_DIR.resolve("classes").toString(),
+                "--module-path", DELEGATE_DIR.resolve("classes").toString(),
+                delegatingSource.toString());
+    }
+
+    @Test
+    public void shouldWriteOpenDelegatingModuleInfo() throws IOException
+    {
+        byte[] expected = Files.readAllBytes(DELEGATING_DIR.resolve("classes/module-info.class"));
+
+        byte[] actual = new RymModuleInfoWriter().writeOpenDelegating("org.example", "org.example.delegate");
+
+        assertArrayEquals(expected, actual);
+    }
+}
@@ -0,0 +1,446 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.reverseOrder;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates a file based maven repository of synthetic artifacts for offline install tests and benchmarks.
+ *
+ * Artifacts cycle through explicit modules, automatic modules without dependencies (promoted),
+ * automatic modules with dependencies (delegated) and jars sharing an automatic module name (unnamed),
+ * all managed by a bom for use in {@code imports}.
+ */
+public final class RymRepositoryFixture
+{
+    public static final String GROUP_ID = "org.example.fixture";
+    public static final String VERSION = "1.0";
+    public static final String BOM_ARTIFACT_ID = "fixture-bom";
+
+    private static final long SEED = 0x5eedL;
+
+    private final Path directory;
+    private final int artifacts;
+    private final int entries;
+    private final int entrySize;
+
+    private RymRepositoryFixture(
+        Path directory,
+        int artifacts,
+        int entries,
+        int entrySize)
+    {
+        this.directory = directory;
+        this.artifacts = artifacts;
+        this.entries = entries;
+        this.entrySize = entrySize;
+    }
+
+    public static RymRepositoryFixture of(
+        Path directory,
+        int artifacts,
+        int entries,
+        int entrySize)
+    {
+        return new RymRepositoryFixture(directory, artifacts, entries, entrySize);
+    }
+
+    public Path repository()
+    {
+        return directory.resolve("repository");
+    }
+
+    public List<String> artifactIds()
+    {
+        return IntStream.range(0, artifacts)
+                .mapToObj(this::artifactId)
+                .collect(toList());
+    }
+
+    public void generate() throws IOException
+    {
+        delete(directory);
+
+        Path sources = directory.resolve("sources");
+        Path classes = directory.resolve("classes");
+        writeSources(sources);
+        compileSources(sources, classes);
+
+        Random random = new Random(SEED);
+        for (int index = 0; index < artifacts; index++)
+        {
+            writeArtifact(classes, index, random);
+        }
+        writeBom();
+    }
+
+    public void writeConfig(
+        Path configDir) throws IOException
+    {
+        writeConfig(configDir, repository().toAbsolutePath().toUri());
+    }
+
+    public void writeConfig(
+        Path configDir,
+        URI location) throws IOException
+    {
+        String dependencies = artifactIds().stream()
+                .map(a -> String.format("    \"%s:%s\"", GROUP_ID, a))
+                .collect(joining(",\n"));
+
+        String config = String.format(
+            "{\n" +
+            "  \"repositories\":\n" +
+            "  [\n" +
+            "    \"%s\"\n" +
+            "  ],\n" +
+            "  \"imports\":\n" +
+            "  [\n" +
+            "    \"%s:%s:%s\"\n" +
+            "  ],\n" +
+            "  \"dependencies\":\n" +
+            "  [\n" +
+            "%s\n" +
+            "  ]\n" +
+            "}\n",
+            location, GROUP_ID, BOM_ARTIFACT_ID, VERSION, dependencies);
+
+        Files.createDirectories(configDir);
+        Files.writeString(configDir.resolve("rym.json"), config);
+    }
+
+    public static void delete(
+        Path dir) throws IOException
+    {
+        if (Files.exists(dir))
+        {
+            try (Stream<Path> paths = Files.walk(dir))
+            {
+                paths.sorted(reverseOrder())
+                     .map(Path::toFile)
+                     .forEach(File::delete);
+            }
+        }
+    }
+
+    private String artifactId(
+        int index)
+    {
+        return String.format("fixture-%s%d", kind(index), index);
+    }
+
+    private String packageName(
+        int index)
+    {
+        return String.format("fixture.%s%d", kind(index), index);
+    }
+
+    private String kind(
+        int index)
+    {
+        switch (index % 4)
+        {
+        case 0:
+            return "module";
+        case 1:
+            return "promoted";
+        case 2:
+            return "automatic";
+        default:
+            return "unnamed";
+        }
+    }
+
+    private List<Integer> depends(
+        int index)
+    {
+        List<Integer> depends = new ArrayList<>();
+        switch (index % 4)
+        {
+        case 0:
+            if (index >= 4)
+            {
+                depends.add(index - 4);
+            }
+            break;
+        case 2:
+            depends.add(index - 1);
+            break;
+        case 3:
+            depends.add(index - 1);
+            break;
+        default:
+            break;
+        }
+        return depends;
+    }
+
+    private void writeSources(
+        Path sources) throws IOException
+    {
+        for (int index = 0; index < artifacts; index++)
+        {
+            String packageName = packageName(index);
+            boolean module = index % 4 == 0;
+            Path root = module ? sources.resolve("modules").resolve(packageName) : sources.resolve("classes");
+            Path packageDir = root.resolve(packageName.replace('.', File.separatorChar));
+            Files.createDirectories(packageDir);
+
+            Files.writeString(packageDir.resolve("Provider.java"), String.format(
+                "package %s;\n" +
+                "public final class Provider implements Runnable\n" +
+                "{\n" +
+                "    public static void main(String... args) throws InterruptedException\n" +
+                "    {\n" +
+                "        new Provider().run();\n" +
+                "        if (args.length > 0 && \"serve\".equals(args[0]))\n" +
+                "        {\n" +
+                "            Thread.sleep(Long.MAX_VALUE);\n" +
+                "        }\n" +
+                "    }\n" +
+                "    public void run()\n" +
+                "    {\n" +
+                "    }\n" +
+                "}\n", packageName));
+
+            if (module)
+            {
+                String requires = depends(index).stream()
+                        .map(d -> String.format("    requires %s;\n", packageName(d)))
+                        .collect(joining());
+                Files.writeString(root.resolve("module-info.java"), String.format(
+                    "module %s\n" +
+                    "{\n" +
+                    "%s" +
+                    "    exports %s;\n" +
+                    "}\n", packageName, requires, packageName));
+            }
+        }
+    }
+
+    private void compileSources(
+        Path sources,
+        Path classes) throws IOException
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        Path modules = sources.resolve("modules");
+        if (Files.exists(modules))
+        {
+            compile(compiler, modules,
+                "--module-source-path", modules.toString(),
+                "-d", classes.resolve("modules").toString());
+        }
+
+        Path plain = sources.resolve("classes");
+        if (Files.exists(plain))
+        {
+            compile(compiler, plain,
+                "-d", classes.resolve("classes").toString());
+        }
+    }
+
+    private void compile(
+        JavaCompiler compiler,
+        Path sources,
+        String... options) throws IOException
+    {
+        List<String> args = new ArrayList<>(List.of(options));
+        try (Stream<Path> paths = Files.walk(sources))
+        {
+            paths.filter(p -> p.toString().endsWith(".java"))
+                 .map(Path::toString)
+                 .forEach(args::add);
+        }
+
+        int exitCode = compiler.run(null, null, null, args.toArray(String[]::new));
+        if (exitCode != 0)
+        {
+            throw new IOException(String.format("unable to compile fixture sources in %s", sources));
+        }
+    }
+
+    private void writeArtifact(
+        Path classes,
+        int index,
+        Random random) throws IOException
+    {
+        String artifactId = artifactId(index);
+        String packageName = packageName(index);
+        String packagePath = packageName.replace('.', '/');
+        Path artifactDir = artifactDir(artifactId);
+        Files.createDirectories(artifactDir);
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (index % 4 == 3)
+        {
+            manifest.getMainAttributes().put(new Attributes.Name("Automatic-Module-Name"), packageName(index - 1));
+        }
+
+        boolean module = index % 4 == 0;
+        Path classesDir = module ? classes.resolve("modules").resolve(packageName) : classes.resolve("classes");
+
+        Path jarFile = artifactDir.resolve(String.format("%s-%s.jar", artifactId, VERSION));
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile), manifest))
+        {
+            if (module)
+            {
+                putEntry(jar, "module-info.class", Files.readAllBytes(classesDir.resolve("module-info.class")));
+            }
+            else
+            {
+                String service = String.format("%s.Provider\n", packageName);
+                putEntry(jar, "META-INF/services/java.lang.Runnable", service.getBytes(UTF_8));
+            }
+
+            String providerPath = String.format("%s/Provider.class", packagePath);
+            putEntry(jar, providerPath, Files.readAllBytes(classesDir.resolve(providerPath)));
+
+            byte[] contents = new byte[entrySize];
+            for (int entry = 0; entry < entries; entry++)
+            {
+                random.nextBytes(contents);
+                putEntry(jar, String.format("%s/resource%d.bin", packagePath, entry), contents);
+            }
+        }
+        writeChecksum(jarFile);
+
+        String dependencies = depends(index).stream()
+                .map(d -> String.format(
+                    "    <dependency>\n" +
+                    "      <groupId>%s</groupId>\n" +
+                    "      <artifactId>%s</artifactId>\n" +
+                    "      <version>%s</version>\n" +
+                    "    </dependency>\n", GROUP_ID, artifactId(d), VERSION))
+                .collect(joining());
+
+        writePom(artifactId, "jar", String.format(
+            "  <dependencies>\n" +
+            "%s" +
+            "  </dependencies>\n", dependencies));
+    }
+
+    private void writeBom() throws IOException
+    {
+        String dependencies = artifactIds().stream()
+                .map(a -> String.format(
+                    "      <dependency>\n" +
+                    "        <groupId>%s</groupId>\n" +
+                    "        <artifactId>%s</artifactId>\n" +
+                    "        <version>%s</version>\n" +
+                    "      </dependency>\n", GROUP_ID, a, VERSION))
+                .collect(joining());
+
+        Files.createDirectories(artifactDir(BOM_ARTIFACT_ID));
+        writePom(BOM_ARTIFACT_ID, "pom", String.format(
+            "  <dependencyManagement>\n" +
+            "    <dependencies>\n" +
+            "%s" +
+            "    </dependencies>\n" +
+            "  </dependencyManagement>\n", dependencies));
+    }
+
+    private void writePom(
+        String artifactId,
+        String packaging,
+        String body) throws IOException
+    {
+        String pom = String.format(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" +
+            "  <modelVersion>4.0.0</modelVersion>\n" +
+            "  <groupId>%s</groupId>\n" +
+            "  <artifactId>%s</artifactId>\n" +
+            "  <version>%s</version>\n" +
+            "  <packaging>%s</packaging>\n" +
+            "%s" +
+            "</project>\n", GROUP_ID, artifactId, VERSION, packaging, body);
+
+        Path pomFile = artifactDir(artifactId).resolve(String.format("%s-%s.pom", artifactId, VERSION));
+        Files.writeString(pomFile, pom);
+        writeChecksum(pomFile);
+    }
+
+    private Path artifactDir(
+        String artifactId)
+    {
+        return repository().resolve(GROUP_ID.replace('.', File.separatorChar))
+                .resolve(artifactId)
+                .resolve(VERSION);
+    }
+
+    private static void putEntry(
+        JarOutputStream jar,
+        String name,
+        byte[] contents) throws IOException
+    {
+        JarEntry entry = new JarEntry(name);
+        entry.setTime(318240000000L);
+        jar.putNextEntry(entry);
+        jar.write(contents);
+        jar.closeEntry();
+    }
+
+    private static void writeChecksum(
+        Path file) throws IOException
+    {
+        try
+        {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest(Files.readAllBytes(file));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest)
+            {
+                hex.append(String.format("%02x", b));
+            }
+
+            Path checksum = file.resolveSibling(String.format("%s.sha1", file.getFileName()));
+            try (OutputStream out = Files.newOutputStream(checksum))
+            {
+                out.write(hex.toString().getBytes(UTF_8));
+            }
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
+}
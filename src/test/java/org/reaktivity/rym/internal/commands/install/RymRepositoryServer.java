@@ -0,0 +1,188 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves a file based maven repository over HTTP, recording requests and optionally delaying or failing responses.
+ *
+ * Concurrency is tracked while responses are delayed, for artifact and POM requests only, excluding checksum sidecars.
+ */
+public final class RymRepositoryServer implements AutoCloseable
+{
+    private final Path repository;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<String> paths;
+    private final AtomicInteger active;
+    private final AtomicInteger maxActive;
+
+    private volatile long delay;
+    private volatile int status;
+    private volatile int checksumStatus;
+
+    private RymRepositoryServer(
+        Path repository) throws IOException
+    {
+        this.repository = repository;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.paths = new CopyOnWriteArrayList<>();
+        this.active = new AtomicInteger();
+        this.maxActive = new AtomicInteger();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static RymRepositoryServer start(
+        Path repository) throws IOException
+    {
+        RymRepositoryServer server = new RymRepositoryServer(repository);
+        server.server.start();
+        return server;
+    }
+
+    public URI location()
+    {
+        return URI.create(String.format("http://localhost:%d/", server.getAddress().getPort()));
+    }
+
+    public List<String> paths()
+    {
+        return paths;
+    }
+
+    public int requests()
+    {
+        return paths.size();
+    }
+
+    public int maxConcurrentArtifactRequests()
+    {
+        return maxActive.get();
+    }
+
+    public void delay(
+        long millis)
+    {
+        this.delay = millis;
+    }
+
+    public void fail(
+        int status)
+    {
+        this.status = status;
+    }
+
+    public void failChecksums(
+        int status)
+    {
+        this.checksumStatus = status;
+    }
+
+    public void reset()
+    {
+        paths.clear();
+        maxActive.set(0);
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(
+        HttpExchange exchange) throws IOException
+    {
+        String path = exchange.getRequestURI().getPath();
+        paths.add(path);
+        try
+        {
+            boolean checksum = path.endsWith(".sha1") || path.endsWith(".sha256");
+            boolean artifact = !checksum;
+            if (artifact)
+            {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            }
+            try
+            {
+                if (delay > 0L)
+                {
+                    Thread.sleep(delay);
+                }
+            }
+            finally
+            {
+                if (artifact)
+                {
+                    active.decrementAndGet();
+                }
+            }
+
+            Path file = repository.resolve(path.substring(1));
+            if (status != 0)
+            {
+                exchange.sendResponseHeaders(status, -1);
+            }
+            else if (checksum && checksumStatus != 0)
+            {
+                exchange.sendResponseHeaders(checksumStatus, -1);
+            }
+            else if (Files.isRegularFile(file))
+            {
+                byte[] contents = Files.readAllBytes(file);
+                boolean head = "HEAD".equals(exchange.getRequestMethod());
+                exchange.sendResponseHeaders(200, head ? -1 : contents.length);
+                if (!head)
+                {
+                    try (OutputStream out = exchange.getResponseBody())
+                    {
+                        out.write(contents);
+                    }
+                }
+            }
+            else
+            {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.reaktivity.rym.internal.settings.RymMirror;
+
+public class RymResolveCommandTest
+{
+    private static final List<RymMirror> MIRRORS = singletonList(RymMirror.of("https://mirror.invalid/", "*"));
+
+    @Test
+    public void shouldMergeRefreshPoliciesOntoMirror()
+    {
+        List<RymRepository> mirrored = RymResolveCommand.mirrorRepositories(asList(
+            new RymRepository("https://one.invalid/", "never", "daily"),
+            new RymRepository("https://two.invalid/", "always", null)), MIRRORS);
+
+        assertThat(mirrored.size(), equalTo(1));
+        assertThat(mirrored.get(0).location, equalTo("https://mirror.invalid/"));
+        assertThat(mirrored.get(0).releases, equalTo("always"));
+        assertThat(mirrored.get(0).snapshots, equalTo("daily"));
+    }
+
+    @Test
+    public void shouldKeepMoreFrequentRefreshPolicyOntoMirror()
+    {
+        List<RymRepository> mirrored = RymResolveCommand.mirrorRepositories(asList(
+            new RymRepository("https://one.invalid/", "always", null),
+            new RymRepository("https://two.invalid/", "never", "never")), MIRRORS);
+
+        assertThat(mirrored.get(0).releases, equalTo("always"));
+        assertThat(mirrored.get(0).snapshots, nullValue());
+    }
+
+    @Test
+    public void shouldUnmirrorLockedArtifactsByGroup()
+    {
+        List<RymRepository> repositories = asList(
+            new RymRepository("https://one.invalid/", null, null, singletonList("org.example.*")),
+            new RymRepository("https://two.invalid/"));
+        List<RymLockedArtifact> locked = asList(
+            RymLockedArtifact.of(RymDependency.of("org.example.app", "app", "1.0"), emptyList(),
+                "https://mirror.invalid/", "app.jar", null, null),
+            RymLockedArtifact.of(RymDependency.of("org.other", "lib", "1.0"), emptyList(),
+                "https://mirror.invalid/", "lib.jar", null, null),
+            RymLockedArtifact.of(RymDependency.of("org.local", "local", "1.0"), emptyList(),
+                "file:///root/.m2/repository", "local.jar", null, null));
+
+        List<RymLockedArtifact> unmirrored = RymResolveCommand.unmirrorArtifacts(locked, repositories, MIRRORS);
+
+        assertThat(unmirrored.get(0).repository, equalTo("https://one.invalid/"));
+        assertThat(unmirrored.get(1).repository, equalTo("https://two.invalid/"));
+        assertThat(unmirrored.get(2).repository, equalTo("file:///root/.m2/repository"));
+    }
+
+    @Test
+    public void shouldNotUnmirrorLockedArtifactsWithoutMirrors()
+    {
+        List<RymLockedArtifact> locked = singletonList(
+            RymLockedArtifact.of(RymDependency.of("org.example", "app", "1.0"), emptyList(),
+                "https://one.invalid/", "app.jar", null, null));
+
+        List<RymLockedArtifact> unmirrored = RymResolveCommand.unmirrorArtifacts(locked,
+            singletonList(new RymRepository("https://one.invalid/")), null);
+
+        assertThat(unmirrored, equalTo(locked));
+    }
+}
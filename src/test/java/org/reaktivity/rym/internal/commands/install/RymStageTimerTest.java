@@ -0,0 +1,117 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assume.assumeThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RymStageTimerTest
+{
+    private static final long STAGE_MILLIS = 100L;
+
+    @Test
+    public void shouldRecordStageWhenClosed() throws Exception
+    {
+        List<RymStageMetrics> stages = new ArrayList<>();
+
+        try (RymStageTimer stage = new RymStageTimer(stages, "resolve"))
+        {
+            assertThat(stages, hasSize(0));
+            Thread.sleep(10L);
+            stage.count(3);
+        }
+
+        assertThat(stages, hasSize(1));
+        RymStageMetrics metrics = stages.get(0);
+        assertThat(metrics.name, equalTo("resolve"));
+        assertThat(metrics.count, equalTo(3L));
+        assertThat(metrics.wallMillis, greaterThanOrEqualTo(10L));
+    }
+
+    @Test
+    public void shouldRecordStagesInOrderWithWallTime() throws Exception
+    {
+        List<RymStageMetrics> stages = new ArrayList<>();
+
+        try (RymStageTimer stage = new RymStageTimer(stages, "sleep"))
+        {
+            Thread.sleep(STAGE_MILLIS);
+            stage.count(1);
+        }
+
+        try (RymStageTimer stage = new RymStageTimer(stages, "noop"))
+        {
+            stage.count(2);
+        }
+
+        assertThat(stages.stream().map(s -> s.name).toArray(), arrayContaining("sleep", "noop"));
+        assertThat(stages.stream().map(s -> s.count).toArray(), arrayContaining(1L, 2L));
+        assertThat(stages.get(0).wallMillis, greaterThanOrEqualTo(STAGE_MILLIS));
+        assertThat(stages.get(0).wallMillis, greaterThan(stages.get(1).wallMillis));
+    }
+
+    @Test
+    public void shouldMeasureCpuTimeWhileBusy() throws Exception
+    {
+        List<RymStageMetrics> stages = new ArrayList<>();
+
+        try (RymStageTimer stage = new RymStageTimer(stages, "spin"))
+        {
+            long deadline = System.nanoTime() + MILLISECONDS.toNanos(STAGE_MILLIS);
+            while (System.nanoTime() < deadline)
+            {
+                Thread.onSpinWait();
+            }
+        }
+
+        RymStageMetrics metrics = stages.get(0);
+        assumeThat(metrics.cpuMillis, greaterThanOrEqualTo(0L));
+        assertThat(metrics.cpuMillis, greaterThanOrEqualTo(STAGE_MILLIS / 2));
+    }
+
+    @Test
+    public void shouldMeasureBytesWritten() throws Exception
+    {
+        List<RymStageMetrics> stages = new ArrayList<>();
+        Path file = Paths.get("target/test-stage-timer/written.bin");
+        Files.createDirectories(file.getParent());
+        byte[] bytes = new byte[1 << 20];
+
+        try (RymStageTimer stage = new RymStageTimer(stages, "write"))
+        {
+            Files.write(file, bytes);
+        }
+
+        RymStageMetrics metrics = stages.get(0);
+        assumeThat(metrics.bytesWritten, greaterThanOrEqualTo(0L));
+        assertThat(metrics.bytesWritten, greaterThanOrEqualTo((long) bytes.length));
+        assertThat(metrics.bytesRead, greaterThanOrEqualTo(0L));
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RymCacheTest
+{
+    @Test
+    public void shouldTreatNetworkLocationsAsRemote()
+    {
+        assertTrue(RymCache.isRemote("https://repo1.maven.org/maven2/"));
+        assertTrue(RymCache.isRemote("http://localhost:8080/"));
+    }
+
+    @Test
+    public void shouldTreatFileLocationsAsLocal()
+    {
+        assertFalse(RymCache.isRemote("file:///home/user/.m2/repository"));
+        assertFalse(RymCache.isRemote("FILE:///home/user/.m2/repository"));
+        assertFalse(RymCache.isRemote("/home/user/.m2/repository"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidLocation()
+    {
+        RymCache.isRemote("https://repo example.com/maven2/");
+    }
+}
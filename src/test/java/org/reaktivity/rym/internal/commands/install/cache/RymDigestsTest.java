@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+import org.reaktivity.rym.internal.commands.install.RymFingerprint;
+
+public class RymDigestsTest
+{
+    @Test
+    public void shouldTrustVerifiedDigest() throws IOException
+    {
+        Path directory = Paths.get("target/test-digests/trusted");
+        Path digestsFile = directory.resolve("digests.json");
+        Path artifact = directory.resolve("example-1.0.jar");
+
+        Files.createDirectories(directory);
+        Files.deleteIfExists(digestsFile);
+        Files.write(artifact, "example".getBytes());
+
+        RymDigests digests = RymDigests.read(digestsFile, directory);
+        digests.verified(artifact, "verified", "sha1");
+        digests.write();
+
+        RymDigests reloaded = RymDigests.read(digestsFile, directory);
+
+        assertThat(reloaded.sha256(artifact), equalTo("verified"));
+        assertThat(reloaded.digest(artifact).verified, equalTo("sha1"));
+    }
+
+    @Test
+    public void shouldRehashModifiedFile() throws IOException
+    {
+        Path directory = Paths.get("target/test-digests/modified");
+        Path digestsFile = directory.resolve("digests.json");
+        Path artifact = directory.resolve("example-1.0.jar");
+
+        Files.createDirectories(directory);
+        Files.deleteIfExists(digestsFile);
+        Files.write(artifact, "example".getBytes());
+
+        RymDigests digests = RymDigests.read(digestsFile, directory);
+        digests.verified(artifact, "verified", "sha1");
+        Files.write(artifact, "modified".getBytes());
+
+        assertThat(digests.sha256(artifact), not(equalTo("verified")));
+        assertThat(digests.sha256(artifact), equalTo(RymFingerprint.sha256(artifact)));
+        assertThat(digests.digest(artifact).verified, nullValue());
+    }
+}
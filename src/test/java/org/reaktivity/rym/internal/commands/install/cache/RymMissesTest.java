@@ -0,0 +1,79 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.junit.Test;
+
+public class RymMissesTest
+{
+    private static final String REPOSITORY = "https://repo1.maven.org/maven2/";
+    private static final String LOOKUP = "org.example#missing;1.0";
+
+    @Test
+    public void shouldRememberMissUntilExpired() throws IOException
+    {
+        Path missesFile = Paths.get("target/test-misses/expired/misses.json");
+        Files.deleteIfExists(missesFile);
+
+        RymMisses misses = RymMisses.read(missesFile, Duration.ofHours(1), 0L);
+        misses.missed(REPOSITORY, LOOKUP);
+        misses.write();
+
+        RymMisses unexpired = RymMisses.read(missesFile, Duration.ofHours(1), Duration.ofMinutes(59).toMillis());
+        RymMisses expired = RymMisses.read(missesFile, Duration.ofHours(1), Duration.ofHours(1).toMillis());
+
+        assertTrue(unexpired.isMissing(REPOSITORY, LOOKUP));
+        assertFalse(expired.isMissing(REPOSITORY, LOOKUP));
+    }
+
+    @Test
+    public void shouldForgetMissWhenFound() throws IOException
+    {
+        Path missesFile = Paths.get("target/test-misses/found/misses.json");
+        Files.deleteIfExists(missesFile);
+
+        RymMisses misses = RymMisses.read(missesFile, Duration.ofHours(1), 0L);
+        misses.missed(REPOSITORY, LOOKUP);
+        misses.found(REPOSITORY, LOOKUP);
+        misses.write();
+
+        assertFalse(misses.isMissing(REPOSITORY, LOOKUP));
+        assertFalse(RymMisses.read(missesFile, Duration.ofHours(1), 0L).isMissing(REPOSITORY, LOOKUP));
+    }
+
+    @Test
+    public void shouldNotRememberMissWhenDisabled() throws IOException
+    {
+        Path missesFile = Paths.get("target/test-misses/disabled/misses.json");
+        Files.deleteIfExists(missesFile);
+
+        RymMisses misses = RymMisses.read(missesFile, Duration.ZERO, 0L);
+        misses.missed(REPOSITORY, LOOKUP);
+        misses.write();
+
+        assertFalse(misses.isMissing(REPOSITORY, LOOKUP));
+        assertFalse(Files.exists(missesFile));
+    }
+}
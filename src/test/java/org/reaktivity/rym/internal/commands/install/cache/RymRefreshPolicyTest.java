@@ -0,0 +1,57 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+public class RymRefreshPolicyTest
+{
+    private static final long NOW = 1_000_000_000L;
+
+    @Test
+    public void shouldParsePolicies()
+    {
+        assertThat(RymRefreshPolicy.of("always"), equalTo(RymRefreshPolicy.ALWAYS));
+        assertThat(RymRefreshPolicy.of("Daily"), equalTo(RymRefreshPolicy.DAILY));
+        assertThat(RymRefreshPolicy.of("never"), equalTo(RymRefreshPolicy.NEVER));
+        assertThat(RymRefreshPolicy.of("interval:30m").interval, equalTo(Duration.ofMinutes(30)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownPolicy()
+    {
+        RymRefreshPolicy.of("sometimes");
+    }
+
+    @Test
+    public void shouldRefreshWhenDue()
+    {
+        long hour = Duration.ofHours(1).toMillis();
+
+        assertThat(RymRefreshPolicy.ALWAYS.isDue(NOW, NOW), is(true));
+        assertThat(RymRefreshPolicy.DAILY.isDue(0L, NOW), is(true));
+        assertThat(RymRefreshPolicy.DAILY.isDue(NOW - hour, NOW), is(false));
+        assertThat(RymRefreshPolicy.DAILY.isDue(NOW - 24 * hour, NOW), is(true));
+        assertThat(RymRefreshPolicy.of("interval:30m").isDue(NOW - hour, NOW), is(true));
+        assertThat(RymRefreshPolicy.NEVER.isDue(0L, NOW), is(false));
+    }
+}
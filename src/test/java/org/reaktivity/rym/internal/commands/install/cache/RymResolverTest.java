@@ -0,0 +1,51 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RymResolverTest
+{
+    @Test
+    public void shouldMatchGroupPatterns()
+    {
+        assertTrue(RymResolver.matches("*", "org.reaktivity"));
+        assertTrue(RymResolver.matches("org.reaktivity.*", "org.reaktivity"));
+        assertTrue(RymResolver.matches("org.reaktivity.*", "org.reaktivity.nukleus"));
+        assertFalse(RymResolver.matches("org.reaktivity.*", "org.reaktivityx"));
+        assertTrue(RymResolver.matches("org.reaktivity", "org.reaktivity"));
+        assertFalse(RymResolver.matches("org.reaktivity", "org.reaktivity.nukleus"));
+    }
+
+    @Test
+    public void shouldAcceptRoutedGroups()
+    {
+        RymResolver routed = new RymResolver();
+        routed.setGroups(singletonList("org.reaktivity.*"));
+
+        RymResolver fallback = new RymResolver();
+        fallback.setExcludedGroups(singletonList("org.reaktivity.*"));
+
+        assertTrue(routed.accepts("org.reaktivity.nukleus"));
+        assertFalse(routed.accepts("org.apache.ivy"));
+        assertFalse(fallback.accepts("org.reaktivity.nukleus"));
+        assertTrue(fallback.accepts("org.apache.ivy"));
+    }
+}
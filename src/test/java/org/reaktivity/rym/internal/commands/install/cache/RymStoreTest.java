@@ -0,0 +1,63 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.install.cache;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class RymStoreTest
+{
+    @Test
+    public void shouldPublishAndLinkArtifact() throws IOException
+    {
+        Path directory = Paths.get("target/test-store");
+        Path source = Paths.get("target/test-store-caches/one/example-1.0.jar");
+        Path target = Paths.get("target/test-store-caches/two/example-1.0.jar");
+
+        Files.createDirectories(source.getParent());
+        Files.write(source, "example".getBytes());
+        Files.deleteIfExists(target);
+
+        RymStore store = new RymStore(directory);
+        String sha256 = store.publish(source);
+        boolean linked = store.link(sha256, target);
+
+        assertTrue(linked);
+        assertThat(Files.readAllBytes(target), equalTo(Files.readAllBytes(source)));
+    }
+
+    @Test
+    public void shouldNotLinkMissingArtifact() throws IOException
+    {
+        Path directory = Paths.get("target/test-store");
+        Path target = Paths.get("target/test-store-caches/three/missing-1.0.jar");
+
+        RymStore store = new RymStore(directory);
+        boolean linked = store.link("0000000000000000000000000000000000000000000000000000000000000000", target);
+
+        assertFalse(linked);
+        assertFalse(Files.exists(target));
+    }
+}
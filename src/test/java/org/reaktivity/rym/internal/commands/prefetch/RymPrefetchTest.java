@@ -0,0 +1,610 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.commands.prefetch;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.io.FileMatchers.anExistingFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.bind.JsonbBuilder;
+
+import org.apache.ivy.util.Message;
+import org.junit.Test;
+import org.reaktivity.rym.internal.RymCli;
+import org.reaktivity.rym.internal.commands.install.RymConfiguration;
+import org.reaktivity.rym.internal.commands.install.RymRepositoryFixture;
+import org.reaktivity.rym.internal.commands.install.RymRepositoryServer;
+
+import com.github.rvesse.airline.Cli;
+
+public class RymPrefetchTest
+{
+    @Test
+    public void shouldPrefetchFromFixtureRepository() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        Runnable prefetch = parser.parse(prefetchArgs(fixtureDir));
+
+        prefetch.run();
+
+        assertThat(prefetch, instanceOf(RymPrefetch.class));
+        assertThat(Files.exists(fixtureDir.resolve("config/rym-lock.json")), is(false));
+        assertThat(fixtureDir.resolve("rym/cache/org.example.fixture/fixture-module0/jars/fixture-module0-1.0.jar").toFile(),
+                anExistingFile());
+        assertThat(Files.exists(fixtureDir.resolve("rym/modules")), is(false));
+        assertThat(Files.exists(fixtureDir.resolve("rym/image")), is(false));
+    }
+
+    @Test
+    public void shouldNotRewriteLockUnlessUpdateRequested() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-lock");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+        Path configFile = fixtureDir.resolve("config/rym.json");
+        Files.writeString(configFile, Files.readString(configFile).replace(
+            ",\n    \"org.example.fixture:fixture-unnamed3\"", ""));
+        Path lockFile = fixtureDir.resolve("config/rym-lock.json");
+        Files.setLastModifiedTime(configFile, FileTime.fromMillis(Files.getLastModifiedTime(lockFile).toMillis() + 1000L));
+        String lock = Files.readString(lockFile);
+
+        parser.parse(prefetchArgs(fixtureDir)).run();
+
+        assertThat(Files.readString(lockFile), equalTo(lock));
+
+        parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+        assertThat(Files.readString(lockFile), not(equalTo(lock)));
+    }
+
+    @Test
+    public void shouldFailPrefetchOnChecksumMismatch() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-checksum");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        Path jarDir = fixture.repository().resolve("org/example/fixture/fixture-promoted1/1.0");
+        Files.writeString(jarDir.resolve("fixture-promoted1-1.0.jar.sha1"), "0000000000000000000000000000000000000000");
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        Runnable prefetch = parser.parse(prefetchArgs(fixtureDir));
+
+        RuntimeException failure = null;
+        try
+        {
+            prefetch.run();
+        }
+        catch (RuntimeException ex)
+        {
+            failure = ex;
+        }
+
+        assertThat(failure, not(nullValue()));
+        assertThat(failure.getMessage(), containsString("org.example.fixture#fixture-promoted1;1.0"));
+        Path cachedJar = fixtureDir.resolve("rym/cache/org.example.fixture/fixture-promoted1/jars/fixture-promoted1-1.0.jar");
+        assertThat(Files.exists(cachedJar), is(false));
+        assertThat(Files.exists(fixtureDir.resolve("config/rym-lock.json")), is(false));
+    }
+
+    @Test
+    public void shouldLockUnverifiedWhenChecksumMissing() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-checksum-missing");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        Path jarDir = fixture.repository().resolve("org/example/fixture/fixture-promoted1/1.0");
+        Files.delete(jarDir.resolve("fixture-promoted1-1.0.jar.sha1"));
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+        Map<String, String> verified = readLock(fixtureDir).artifacts.stream()
+                .collect(HashMap::new, (m, a) -> m.put(a.id.artifactId, a.verified), Map::putAll);
+        assertThat(verified.get("fixture-promoted1"), nullValue());
+        assertThat(verified.get("fixture-module0"), equalTo("sha1"));
+        assertThat(Message.getDefaultLogger().getWarns(), not(hasItem(containsString("recorded as unverified"))));
+    }
+
+    @Test
+    public void shouldFailPrefetchWhenChecksumMissingAndPolicyFails() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-checksum-fail");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"));
+
+        Path jarDir = fixture.repository().resolve("org/example/fixture/fixture-promoted1/1.0");
+        Files.delete(jarDir.resolve("fixture-promoted1-1.0.jar.sha1"));
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        Runnable prefetch = parser.parse(prefetchArgs(fixtureDir, "--checksum-policy", "fail"));
+
+        RuntimeException failure = null;
+        try
+        {
+            prefetch.run();
+        }
+        catch (RuntimeException ex)
+        {
+            failure = ex;
+        }
+
+        assertThat(failure, not(nullValue()));
+        assertThat(failure.getMessage(), containsString("org.example.fixture#fixture-promoted1;1.0"));
+        assertThat(Files.exists(fixtureDir.resolve("config/rym-lock.json")), is(false));
+    }
+
+    @Test
+    public void shouldFailPrefetchWhenChecksumUnavailableAndPolicyFails() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-checksum-unavailable");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            fixture.writeConfig(fixtureDir.resolve("config"), server.location());
+            server.failChecksums(503);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            Runnable prefetch = parser.parse(prefetchArgs(fixtureDir, "--checksum-policy", "fail"));
+
+            RuntimeException failure = null;
+            try
+            {
+                prefetch.run();
+            }
+            catch (RuntimeException ex)
+            {
+                failure = ex;
+            }
+
+            assertThat(failure, not(nullValue()));
+            assertThat(Files.exists(fixtureDir.resolve("config/rym-lock.json")), is(false));
+        }
+    }
+
+    @Test
+    public void shouldLockUnverifiedWhenChecksumUnavailable() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-checksum-warn");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            fixture.writeConfig(fixtureDir.resolve("config"), server.location());
+            server.failChecksums(503);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir, "--checksum-policy", "warn", "--update-lock")).run();
+
+            assertThat(readLock(fixtureDir).artifacts.stream().allMatch(a -> a.verified == null), is(true));
+            assertThat(Message.getDefaultLogger().getWarns(), hasItem(containsString("recorded as unverified")));
+        }
+    }
+
+    @Test
+    public void shouldRememberChecksumAlgorithmPerRepository() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-checksum-algorithm");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 8, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            fixture.writeConfig(fixtureDir.resolve("config"), server.location());
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir)).run();
+
+            long sha1 = server.paths().stream().filter(p -> p.endsWith(".sha1")).count();
+            long sha256 = server.paths().stream().filter(p -> p.endsWith(".sha256")).count();
+            assertThat(sha1, greaterThan(8L));
+            assertThat(sha256, equalTo(1L));
+        }
+    }
+
+    @Test
+    public void shouldPrefetchOfflineFromCache() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-offline");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            URI location = server.location();
+            fixture.writeConfig(fixtureDir.resolve("config"), location);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir)).run();
+
+            assertThat(server.requests(), greaterThan(0));
+
+            server.reset();
+
+            Runnable prefetch = parser.parse(prefetchArgs(fixtureDir,
+                "--update-lock",
+                "--offline",
+                "--resolution-ttl", "0s"));
+            prefetch.run();
+
+            assertThat(server.requests(), equalTo(0));
+            assertThat(fixtureDir.resolve("config/rym-lock.json").toFile(), anExistingFile());
+        }
+    }
+
+    @Test
+    public void shouldInstallOfflineAfterPrefetch() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-install-offline");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        Cli<Runnable> parser = new Cli<>(RymCli.class);
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            fixture.writeConfig(fixtureDir.resolve("config"), server.location());
+
+            parser.parse(prefetchArgs(fixtureDir)).run();
+
+            assertThat(server.requests(), greaterThan(0));
+        }
+
+        String[] install =
+        {
+            "install",
+            "--config-directory", fixtureDir.resolve("config").toString(),
+            "--settings-directory", fixtureDir.resolve("settings").toString(),
+            "--output-directory", fixtureDir.resolve("rym").toString(),
+            "--launcher-directory", fixtureDir.resolve("rym").toString(),
+            "--exclude-local-repository",
+            "--offline",
+            "--silent"
+        };
+        parser.parse(install).run();
+
+        assertThat(fixtureDir.resolve("rym/modules/fixture.module0.jar").toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/image/release").toFile(), anExistingFile());
+        assertThat(fixtureDir.resolve("rym/ry").toFile(), anExistingFile());
+    }
+
+    @Test
+    public void shouldFailOfflineWhenNotCached() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-offline-missing");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            URI location = server.location();
+            fixture.writeConfig(fixtureDir.resolve("config"), location);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            Runnable prefetch = parser.parse(prefetchArgs(fixtureDir, "--offline"));
+
+            RuntimeException failure = null;
+            try
+            {
+                prefetch.run();
+            }
+            catch (RuntimeException ex)
+            {
+                failure = ex;
+            }
+
+            assertThat(failure, not(nullValue()));
+            assertThat(failure.getMessage(), containsString("Unable to resolve offline"));
+            assertThat(failure.getMessage(), containsString("org.example.fixture#fixture-bom;1.0"));
+            assertThat(server.requests(), equalTo(0));
+            assertThat(Files.exists(fixtureDir.resolve("config/rym-lock.json")), is(false));
+        }
+    }
+
+    @Test
+    public void shouldPrefetchFromRoutedRepository() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-routed");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer routed = RymRepositoryServer.start(fixture.repository());
+             RymRepositoryServer fallback = RymRepositoryServer.start(fixtureDir.resolve("empty")))
+        {
+            URI routedLocation = routed.location();
+            URI fallbackLocation = fallback.location();
+            Path configFile = fixtureDir.resolve("config/rym.json");
+            fixture.writeConfig(configFile.getParent(), routedLocation);
+            Files.writeString(configFile, Files.readString(configFile).replace(
+                String.format("\"%s\"", routedLocation),
+                String.format("\"%s\", { \"location\": \"%s\", \"groups\": [ \"org.example.*\" ] }",
+                    fallbackLocation, routedLocation)));
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+            assertThat(routed.requests(), greaterThan(0));
+            assertThat(fallback.requests(), equalTo(0));
+            assertThat(fixtureDir.resolve("config/rym-lock.json").toFile(), anExistingFile());
+        }
+    }
+
+    @Test
+    public void shouldSkipKnownMissesOnRepeatedPrefetch() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-misses");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer hosting = RymRepositoryServer.start(fixture.repository());
+             RymRepositoryServer missing = RymRepositoryServer.start(fixtureDir.resolve("empty")))
+        {
+            URI hostingLocation = hosting.location();
+            URI missingLocation = missing.location();
+            Path configFile = fixtureDir.resolve("config/rym.json");
+            fixture.writeConfig(configFile.getParent(), hostingLocation);
+            Files.writeString(configFile, Files.readString(configFile).replace(
+                String.format("\"%s\"", hostingLocation),
+                String.format("\"%s\", \"%s\"", missingLocation, hostingLocation)));
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir)).run();
+
+            assertThat(missing.requests(), greaterThan(0));
+            assertThat(fixtureDir.resolve("rym/cache/misses.json").toFile(), anExistingFile());
+
+            missing.reset();
+            RymRepositoryFixture.delete(fixtureDir.resolve("rym/cache/org.example.fixture"));
+            RymRepositoryFixture.delete(fixtureDir.resolve("rym/cache/resolutions"));
+            parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+            assertThat(missing.requests(), equalTo(0));
+            assertThat(fixtureDir.resolve("config/rym-lock.json").toFile(), anExistingFile());
+        }
+    }
+
+    @Test
+    public void shouldProbeEachMissWithOneRequest() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-miss-requests");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer hosting = RymRepositoryServer.start(fixture.repository());
+             RymRepositoryServer missing = RymRepositoryServer.start(fixtureDir.resolve("empty")))
+        {
+            URI hostingLocation = hosting.location();
+            URI missingLocation = missing.location();
+            Path configFile = fixtureDir.resolve("config/rym.json");
+            fixture.writeConfig(configFile.getParent(), hostingLocation);
+            Files.writeString(configFile, Files.readString(configFile).replace(
+                String.format("\"%s\"", hostingLocation),
+                String.format("\"%s\", \"%s\"", missingLocation, hostingLocation)));
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir)).run();
+
+            List<String> paths = missing.paths();
+            assertThat(paths.isEmpty(), is(false));
+            assertThat(new HashSet<>(paths).size(), equalTo(paths.size()));
+            assertThat(Files.readString(fixtureDir.resolve("rym/cache/misses.json")),
+                containsString(missingLocation.toString()));
+        }
+    }
+
+    @Test
+    public void shouldNotRecordMissOnServerError() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-server-error");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer hosting = RymRepositoryServer.start(fixture.repository());
+             RymRepositoryServer failing = RymRepositoryServer.start(fixture.repository()))
+        {
+            URI hostingLocation = hosting.location();
+            URI failingLocation = failing.location();
+            Path configFile = fixtureDir.resolve("config/rym.json");
+            fixture.writeConfig(configFile.getParent(), hostingLocation);
+            Files.writeString(configFile, Files.readString(configFile).replace(
+                String.format("\"%s\"", hostingLocation),
+                String.format("\"%s\", \"%s\"", failingLocation, hostingLocation)));
+            failing.fail(500);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+            assertThat(failing.requests(), greaterThan(0));
+            assertThat(new HashSet<>(failing.paths()).size(), equalTo(failing.requests()));
+            assertThat(fixtureDir.resolve("config/rym-lock.json").toFile(), anExistingFile());
+            String misses = Files.readString(fixtureDir.resolve("rym/cache/misses.json"));
+            assertThat(misses, containsString(hostingLocation.toString()));
+            assertThat(misses, not(containsString(failingLocation.toString())));
+        }
+    }
+
+    @Test
+    public void shouldPrefetchFromMirror() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-mirror");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 4, 1, 16);
+        fixture.generate();
+        fixture.writeConfig(fixtureDir.resolve("config"), URI.create("https://repo.invalid/maven2/"));
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            Files.createDirectories(fixtureDir.resolve("settings"));
+            Files.writeString(fixtureDir.resolve("settings/settings.json"), String.format(
+                "{\n" +
+                "  \"mirrors\":\n" +
+                "  [\n" +
+                "    {\n" +
+                "      \"location\": \"%s\",\n" +
+                "      \"mirrorOf\": \"https://repo.invalid/maven2/\"\n" +
+                "    }\n" +
+                "  ]\n" +
+                "}\n", server.location()));
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir, "--update-lock")).run();
+
+            assertThat(server.requests(), greaterThan(0));
+            assertThat(Files.readString(fixtureDir.resolve("config/rym-lock.json")),
+                not(containsString(server.location().toString())));
+            RymConfiguration lock = readLock(fixtureDir);
+            assertThat(lock.artifacts.isEmpty(), is(false));
+            lock.artifacts.forEach(a -> assertThat(a.repository, equalTo("https://repo.invalid/maven2/")));
+        }
+    }
+
+    @Test
+    public void shouldBoundConcurrentDownloadsPerHost() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-bounded");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 8, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            fixture.writeConfig(fixtureDir.resolve("config"), server.location());
+            server.delay(50L);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir,
+                "--download-threads", "8",
+                "--download-host-connections", "2")).run();
+
+            assertThat(server.maxConcurrentArtifactRequests(), equalTo(2));
+        }
+    }
+
+    @Test
+    public void shouldBoundConcurrentDownloadsPerThread() throws IOException
+    {
+        Path fixtureDir = Paths.get("target/test-fixtures/prefetch-serial");
+        RymRepositoryFixture.delete(fixtureDir);
+
+        RymRepositoryFixture fixture = RymRepositoryFixture.of(fixtureDir.resolve("fixture"), 8, 1, 16);
+        fixture.generate();
+
+        try (RymRepositoryServer server = RymRepositoryServer.start(fixture.repository()))
+        {
+            fixture.writeConfig(fixtureDir.resolve("config"), server.location());
+            server.delay(50L);
+
+            Cli<Runnable> parser = new Cli<>(RymCli.class);
+            parser.parse(prefetchArgs(fixtureDir,
+                "--download-threads", "1",
+                "--download-host-connections", "4")).run();
+
+            assertThat(server.maxConcurrentArtifactRequests(), equalTo(1));
+        }
+    }
+
+    private static String[] prefetchArgs(
+        Path fixtureDir,
+        String... options)
+    {
+        List<String> args = new ArrayList<>(List.of(
+            "prefetch",
+            "--config-directory", fixtureDir.resolve("config").toString(),
+            "--settings-directory", fixtureDir.resolve("settings").toString(),
+            "--output-directory", fixtureDir.resolve("rym").toString(),
+            "--exclude-local-repository",
+            "--silent"));
+        args.addAll(List.of(options));
+        return args.toArray(String[]::new);
+    }
+
+    private static RymConfiguration readLock(
+        Path fixtureDir) throws IOException
+    {
+        try (InputStream in = Files.newInputStream(fixtureDir.resolve("config/rym-lock.json")))
+        {
+            return JsonbBuilder.create().fromJson(in, RymConfiguration.class);
+        }
+    }
+}
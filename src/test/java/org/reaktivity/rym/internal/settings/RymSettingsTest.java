@@ -23,6 +23,8 @@ import static org.hamcrest.Matchers.emptyCollectionOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -215,4 +217,62 @@ public class RymSettingsTest
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void shouldReadMirror()
+    {
+        String text =
+                "{" +
+                    "\"mirrors\":" +
+                    "[" +
+                        "{" +
+                            "\"location\": \"https://maven.example.com/maven2/\"," +
+                            "\"mirrorOf\": \"https://repo1.maven.org/maven2/\"" +
+                        "}" +
+                    "]" +
+                "}";
+
+        Jsonb builder = JsonbBuilder.create();
+        RymSettings settings = builder.fromJson(text, RymSettings.class);
+
+        assertThat(settings, not(nullValue()));
+        assertThat(settings.credentials, nullValue());
+        assertThat(settings.mirrors, equalTo(singletonList(
+                new RymMirror("https://maven.example.com/maven2/", "https://repo1.maven.org/maven2/"))));
+    }
+
+    @Test
+    public void shouldWriteMirror()
+    {
+        String expected =
+                "{" +
+                    "\"mirrors\":" +
+                    "[" +
+                        "{" +
+                            "\"location\":\"https://maven.example.com/maven2/\"," +
+                            "\"mirrorOf\":\"*\"" +
+                        "}" +
+                    "]" +
+                "}";
+
+        RymSettings settings = new RymSettings();
+        settings.mirrors = Collections.singletonList(RymMirror.of("https://maven.example.com/maven2/", "*"));
+
+        Jsonb builder = JsonbBuilder.create();
+        String actual = builder.toJson(settings);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void shouldMatchMirroredRepository()
+    {
+        RymMirror all = RymMirror.of("https://maven.example.com/maven2/", "*");
+        RymMirror central = RymMirror.of("https://maven.example.com/maven2/", "https://repo1.maven.org/maven2/");
+
+        assertTrue(all.matches("https://repo1.maven.org/maven2/"));
+        assertFalse(all.matches("file:///home/user/.m2/repository"));
+        assertTrue(central.matches("https://repo1.maven.org/maven2/"));
+        assertFalse(central.matches("https://maven.pkg.github.com/reaktivity/"));
+    }
 }
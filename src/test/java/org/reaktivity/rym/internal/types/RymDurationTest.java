@@ -0,0 +1,49 @@
+/**
+ * Copyright 2016-2021 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.rym.internal.types;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+import org.junit.Test;
+
+public class RymDurationTest
+{
+    @Test
+    public void shouldParseShortDurations()
+    {
+        assertThat(RymDuration.parse("0s"), equalTo(Duration.ZERO));
+        assertThat(RymDuration.parse("45s"), equalTo(Duration.ofSeconds(45)));
+        assertThat(RymDuration.parse("30m"), equalTo(Duration.ofMinutes(30)));
+        assertThat(RymDuration.parse("12h"), equalTo(Duration.ofHours(12)));
+        assertThat(RymDuration.parse("7d"), equalTo(Duration.ofDays(7)));
+    }
+
+    @Test
+    public void shouldParseIsoDurations()
+    {
+        assertThat(RymDuration.parse("PT1H30M"), equalTo(Duration.ofMinutes(90)));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void shouldRejectInvalidDuration()
+    {
+        RymDuration.parse("soon");
+    }
+}